@@ -0,0 +1,117 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.sun.net.httpserver.HttpServer;
+import com.teaminfinity.expensemanagement.ExpenseManagementApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load on an endpoint that blocks on an external API, comparing
+ * platform and virtual request threads.
+ * 
+ * The rate provider is a local stub that answers after {@code stubDelayMillis}; the
+ * rate cache is disabled and every request asks for a new base currency, so each one
+ * makes its own outbound call. With platform threads, throughput is capped at about
+ * tomcatThreads / delay and the rest queue up (watch p0.99); with virtual threads it
+ * scales with the offered concurrency (100 client threads). The defaults keep the CPU
+ * cost per request small next to the wait, so the effect shows on a small machine;
+ * override with e.g. {@code -p tomcatThreads=200 -p stubDelayMillis=200}.
+ * Runs against the H2 test profile.
+ * 
+ * Pinned virtual threads are reported on stdout (jdk.tracePinnedThreads).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@Threads(100)
+@State(Scope.Benchmark)
+public class RequestThreadingBenchmark {
+    
+    private static final byte[] RATES = "{\"rates\":{\"USD\":1,\"EUR\":0.92}}".getBytes(StandardCharsets.UTF_8);
+    
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+    
+    @Param({"20"})
+    public int tomcatThreads;
+    
+    @Param({"1000"})
+    public int stubDelayMillis;
+    
+    private HttpServer stub;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/latest", exchange -> {
+            try {
+                Thread.sleep(stubDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RATES.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RATES);
+            }
+        });
+        stub.start();
+        
+        // Command-line arguments, so they take precedence over application.properties
+        context = new SpringApplicationBuilder(ExpenseManagementApplication.class).run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--api.external.enabled=true",
+                "--api.currency-rates.url=http://localhost:" + stub.getAddress().getPort() + "/latest",
+                "--currency.rates.cache-ttl=0s",
+                "--currency.rates.stale-ttl=0s",
+                "--currency.rates.snapshot-on-startup=false",
+                "--api.countries.refresh-initial-delay=PT24H",
+                "--logging.level.root=WARN",
+                "--logging.level.com.teaminfinity.expensemanagement=WARN",
+                "--logging.level.org.springframework.security=WARN");
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                + "/api/integration/currency-rates/";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        stub.stop(0);
+    }
+    
+    @Benchmark
+    public int currencyRates() throws IOException, InterruptedException {
+        // A fresh base currency per request defeats the in-flight de-duplication
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "B" + sequence.incrementAndGet())).build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,77 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.dto.approval.ApprovalStepResponse;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.ApprovalStep;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response DTO mapping for one page of a list endpoint.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+    
+    @Param({"50"})
+    private int pageSize;
+    
+    private List<Expense> expenses;
+    private List<ApprovalStep> steps;
+    
+    @Setup
+    public void setUp() {
+        AppUser user = new AppUser();
+        user.setId(1L);
+        user.setFullName("Employee User");
+        
+        expenses = new ArrayList<>(pageSize);
+        steps = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Expense expense = new Expense();
+            expense.setId((long) i + 1);
+            expense.setUser(user);
+            expense.setAmount(new BigDecimal("120.00"));
+            expense.setCurrency("USD");
+            expense.setCategory("Travel");
+            expense.setDescription("Taxi to client site");
+            expense.setExpenseDate(LocalDate.now());
+            expense.setStatus(ExpenseStatus.PENDING);
+            expense.setCreatedAt(LocalDateTime.now());
+            expenses.add(expense);
+            
+            ApprovalStep step = new ApprovalStep();
+            step.setId((long) i + 1);
+            step.setExpense(expense);
+            step.setApprover(user);
+            step.setSequence(1);
+            step.setDecision(ApprovalDecision.PENDING);
+            step.setCreatedAt(LocalDateTime.now());
+            steps.add(step);
+        }
+    }
+    
+    @Benchmark
+    public List<ExpenseResponse> mapExpensePage() {
+        return expenses.stream().map(ExpenseController::mapToExpenseResponse).toList();
+    }
+    
+    @Benchmark
+    public List<ApprovalStepResponse> mapApprovalStepPage() {
+        return steps.stream().map(ApprovalController::mapToApprovalStepResponse).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.teaminfinity.expensemanagement.security;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT work done on every authenticated request: parsing, subject extraction
+ * and validation of an HS256 token. The same token is reused, so most benchmarks
+ * measure the verified-token cache path; parseTokenUncached verifies the signature
+ * on every call, as for a token seen for the first time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+    
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private AppUser user;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil(10_000);
+        uncachedJwtUtil = newJwtUtil(0);
+        
+        Company company = new Company();
+        company.setId(1L);
+        
+        user = new AppUser();
+        user.setId(1L);
+        user.setEmail("employee@bench.test");
+        user.setRole(Role.EMPLOYEE);
+        user.setCompany(company);
+        token = jwtUtil.generateToken(user);
+    }
+    
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+    
+    @Benchmark
+    public Claims parseTokenUncached() {
+        return uncachedJwtUtil.parseToken(token);
+    }
+    
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+    
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+    
+    private static JwtUtil newJwtUtil(int verifiedCacheSize) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", "benchmark-secret-key-at-least-32-bytes-long");
+        ReflectionTestUtils.setField(util, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(util, "verifiedCacheSize", verifiedCacheSize);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,45 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.util.CircuitBreaker;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Currency conversion with the external API disabled, i.e. the cost of the
+ * rate lookup and money math alone (no network).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyRateServiceBenchmark {
+    
+    private CurrencyRateService currencyRateService;
+    private BigDecimal amount;
+    
+    @Setup
+    public void setUp() {
+        currencyRateService = new CurrencyRateService(new RestTemplate(), new SyncTaskExecutor(),
+                new CircuitBreaker("benchmark", 5, Duration.ofSeconds(30)));
+        ReflectionTestUtils.setField(currencyRateService, "externalApiEnabled", false);
+        amount = new BigDecimal("1234.56");
+    }
+    
+    @Benchmark
+    public BigDecimal convertCurrency() {
+        return currencyRateService.convertCurrency(amount, "USD", "EUR");
+    }
+    
+    @Benchmark
+    public BigDecimal convertSameCurrency() {
+        return currencyRateService.convertCurrency(amount, "USD", "USD");
+    }
+}
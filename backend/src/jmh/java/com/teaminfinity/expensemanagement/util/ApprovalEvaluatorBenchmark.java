@@ -0,0 +1,76 @@
+package com.teaminfinity.expensemanagement.util;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.CompanyApprovalRule;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ApprovalRuleType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approval routing for a single expense over realistic company rule counts.
+ * Rules cycle through the three rule types so roughly half of them match.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApprovalEvaluatorBenchmark {
+    
+    @Param({"3", "10", "50"})
+    private int ruleCount;
+    
+    private ApprovalEvaluator approvalEvaluator;
+    private List<CompanyApprovalRule> rules;
+    private CompiledRuleSet compiledRules;
+    private AppUser manager;
+    private Expense expense;
+    
+    @Setup
+    public void setUp() {
+        approvalEvaluator = new ApprovalEvaluator();
+        manager = user(1L);
+        
+        rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            CompanyApprovalRule rule = new CompanyApprovalRule();
+            rule.setId((long) i + 1);
+            rule.setRuleType(ApprovalRuleType.values()[i % ApprovalRuleType.values().length]);
+            rule.setThresholdAmount(BigDecimal.valueOf(100L * (i + 1)));
+            rule.setThresholdPercentage(new BigDecimal("80.00"));
+            rule.setSpecificApprover(user(i + 2L));
+            rule.setSequence(i + 1);
+            rule.setActive(true);
+            rules.add(rule);
+        }
+        compiledRules = approvalEvaluator.compile(1L, rules, true);
+        
+        expense = new Expense();
+        expense.setAmount(BigDecimal.valueOf(50L * ruleCount));
+        expense.setCurrency("USD");
+    }
+    
+    @Benchmark
+    public List<AppUser> determineApprovers() {
+        return approvalEvaluator.determineApprovers(expense, rules, manager, true);
+    }
+    
+    @Benchmark
+    public List<Long> determineApproverIdsCompiled() {
+        return approvalEvaluator.determineApproverIds(compiledRules, expense.getAmount(), manager.getId());
+    }
+    
+    private static AppUser user(Long id) {
+        AppUser user = new AppUser();
+        user.setId(id);
+        user.setEmail("approver" + id + "@bench.test");
+        user.setFullName("Approver " + id);
+        return user;
+    }
+}
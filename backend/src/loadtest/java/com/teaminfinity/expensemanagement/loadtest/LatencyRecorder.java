@@ -0,0 +1,117 @@
+package com.teaminfinity.expensemanagement.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and status counts per endpoint, shared by all virtual users.
+ * Requests are only recorded once {@link #startMeasuring()} was called, so the
+ * warm-up phase does not show up in the report.
+ */
+class LatencyRecorder {
+    
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+    private volatile long measureStartNanos;
+    private volatile long measureEndNanos;
+    
+    void startMeasuring() {
+        measureStartNanos = System.nanoTime();
+        measuring = true;
+    }
+    
+    void stopMeasuring() {
+        measureEndNanos = System.nanoTime();
+        measuring = false;
+    }
+    
+    /**
+     * @param status HTTP status, or 0 if the request failed without a response
+     */
+    void record(String endpoint, long startNanos, int status) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (!measuring || startNanos < measureStartNanos) {
+            return;
+        }
+        endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).record(elapsedNanos / 1_000, status);
+    }
+    
+    /**
+     * Report section per endpoint, sorted by name, plus an "ALL" entry over every request.
+     */
+    Map<String, Object> summarize() {
+        double seconds = Math.max((measureEndNanos - measureStartNanos) / 1e9, 0.001);
+        Map<String, Object> result = new LinkedHashMap<>();
+        Endpoint all = new Endpoint();
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            result.put(entry.getKey(), entry.getValue().summarize(seconds));
+            all.add(entry.getValue());
+        }
+        result.put("ALL", all.summarize(seconds));
+        return result;
+    }
+    
+    double measuredSeconds() {
+        return (measureEndNanos - measureStartNanos) / 1e9;
+    }
+    
+    private static final class Endpoint {
+        
+        private final Histogram latencyMicros = new ConcurrentHistogram(3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final AtomicLong errors = new AtomicLong();
+        
+        void record(long micros, int status) {
+            latencyMicros.recordValue(Math.max(micros, 1));
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            if (status < 200 || status >= 400) {
+                errors.incrementAndGet();
+            }
+        }
+        
+        void add(Endpoint other) {
+            latencyMicros.add(other.latencyMicros);
+            other.statuses.forEach((status, count) ->
+                    statuses.computeIfAbsent(status, s -> new LongAdder()).add(count.sum()));
+            errors.addAndGet(other.errors.get());
+        }
+        
+        Map<String, Object> summarize(double seconds) {
+            long requests = latencyMicros.getTotalCount();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", requests);
+            summary.put("errors", errors.get());
+            summary.put("errorRate", requests == 0 ? 0.0 : round((double) errors.get() / requests, 4));
+            summary.put("throughputPerSecond", round(requests / seconds, 1));
+            
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", millis(latencyMicros.getValueAtPercentile(50)));
+            latency.put("p95", millis(latencyMicros.getValueAtPercentile(95)));
+            latency.put("p99", millis(latencyMicros.getValueAtPercentile(99)));
+            latency.put("max", millis(latencyMicros.getMaxValue()));
+            latency.put("mean", round(latencyMicros.getMean() / 1_000, 3));
+            summary.put("latencyMillis", latency);
+            
+            Map<String, Long> byStatus = new TreeMap<>();
+            statuses.forEach((status, count) -> byStatus.put(status == 0 ? "failed" : status.toString(), count.sum()));
+            summary.put("statuses", byStatus);
+            return summary;
+        }
+        
+        private static double millis(long micros) {
+            return round(micros / 1_000.0, 3);
+        }
+        
+        private static double round(double value, int digits) {
+            double scale = Math.pow(10, digits);
+            return Math.round(value * scale) / scale;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.teaminfinity.expensemanagement.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.teaminfinity.expensemanagement.ExpenseManagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test of the REST API: boots the application, logs virtual users in
+ * through /api/auth and drives a weighted mix of expense submissions, expense lists,
+ * approval inbox reads and approval decisions, then writes a JSON report with p50,
+ * p95, p99, error rate and throughput per endpoint (target/loadtest/ by default), so
+ * runs can be diffed.
+ * 
+ * The users are the ones created by the datagen profile (SyntheticDataGenerator), which
+ * is active by default: the first start against an empty database generates the data
+ * set, later starts reuse it. Managers and admins act as approvers and only read their
+ * inbox and decide; everybody else submits and lists expenses. As long as there are
+ * enough manager accounts, each is used by one virtual user only, so two users never
+ * race for the same step.
+ * 
+ * Virtual users run a closed loop (next request once the previous one answered, plus
+ * loadtest.think-time), each on its own virtual thread with its own seeded random
+ * stream. Client and server share the JVM and the machine, so compare runs made on the
+ * same hardware. Requests started during loadtest.warmup are not reported.
+ * 
+ * Every argument is passed to the application; loadtest.* arguments configure the run:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--loadtest.users=200 --loadtest.duration=2m"
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--spring.profiles.active=test,datagen --datagen.expenses=50000"
+ * </pre>
+ */
+public final class LoadTest {
+    
+    static final String SUBMIT = "POST /api/expenses";
+    static final String MY_EXPENSES = "GET /api/expenses/my";
+    static final String PENDING = "GET /api/approvals/pending";
+    static final String DECIDE = "PUT /api/approvals/{stepId}";
+    static final String LOGIN = "POST /api/auth/login";
+    
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Office Supplies", "Transportation", "Software"};
+    
+    private static final Map<String, String> DEFAULT_ARGS = Map.of(
+            "spring.profiles.active", "datagen",
+            "datagen.exit-when-done", "false",
+            "spring.main.banner-mode", "off",
+            "logging.level.root", "WARN",
+            "logging.level.com.teaminfinity.expensemanagement", "WARN",
+            "logging.level.com.teaminfinity.expensemanagement.datagen.SyntheticDataGenerator", "INFO");
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicLong decisionsWithoutWork = new AtomicLong();
+    
+    private final String baseUrl;
+    private final Settings settings;
+    
+    private LoadTest(String baseUrl, Settings settings) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        DEFAULT_ARGS.forEach((name, value) -> {
+            if (arguments.stream().noneMatch(arg -> arg.startsWith("--" + name + "="))) {
+                arguments.add("--" + name + "=" + value);
+            }
+        });
+        
+        int exitCode = 0;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ExpenseManagementApplication.class)
+                .run(arguments.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Settings settings = Settings.from(context.getEnvironment());
+            Map<String, Object> report = new LoadTest("http://localhost:" + port, settings).run();
+            
+            Path file = settings.report();
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+            System.out.println("Report written to " + file.toAbsolutePath());
+            if (settings.maxErrorRate() < 1 && errorRate(report) > settings.maxErrorRate()) {
+                System.out.println("Error rate above loadtest.max-error-rate=" + settings.maxErrorRate());
+                exitCode = 1;
+            }
+        }
+        System.exit(exitCode);
+    }
+    
+    private Map<String, Object> run() throws Exception {
+        List<VirtualUser> users = createUsers();
+        System.out.printf("Logging in %d virtual users (%d approvers)%n", users.size(),
+                users.stream().filter(VirtualUser::approver).count());
+        
+        Instant started = Instant.now();
+        long deadline = System.nanoTime() + settings.warmup().plus(settings.duration()).toNanos();
+        List<Future<?>> running = new ArrayList<>(users.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (VirtualUser user : users) {
+                running.add(executor.submit(() -> {
+                    user.run(deadline);
+                    return null;
+                }));
+            }
+            Thread.sleep(settings.warmup().toMillis());
+            recorder.startMeasuring();
+            System.out.printf("Warm-up done, measuring for %s%n", settings.duration());
+            for (Future<?> future : running) {
+                future.get();
+            }
+            recorder.stopMeasuring();
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", started.toString());
+        report.put("settings", settings.describe());
+        report.put("measuredSeconds", Math.round(recorder.measuredSeconds() * 10) / 10.0);
+        report.put("decisionsWithoutPendingWork", decisionsWithoutWork.get());
+        report.put("endpoints", recorder.summarize());
+        print(report);
+        return report;
+    }
+    
+    /**
+     * Approvers are the admin and managers of the datagen hierarchy (user 0 and users
+     * with reports), spread over companies; submitters are drawn from the other users.
+     */
+    private List<VirtualUser> createUsers() {
+        int approverCount = settings.approverUsers();
+        int managersPerCompany = managersPerCompany();
+        List<VirtualUser> users = new ArrayList<>(settings.users());
+        for (int i = 0; i < settings.users(); i++) {
+            SplittableRandom random = new SplittableRandom(settings.seed() * 1_000_003L + i);
+            boolean approver = i < approverCount;
+            int company;
+            int index;
+            if (approver) {
+                company = i % settings.companies();
+                index = (i / settings.companies()) % (managersPerCompany + 1);
+            } else {
+                company = random.nextInt(settings.companies());
+                index = managersPerCompany + 1 + random.nextInt(settings.usersPerCompany() - managersPerCompany - 1);
+            }
+            String email = "user" + index + "@c" + company + ".s" + settings.datagenSeed() + ".example.com";
+            users.add(new VirtualUser(email, approver, random));
+        }
+        return users;
+    }
+    
+    /**
+     * Users 1..n of a company have reports (see SyntheticDataGenerator).
+     */
+    private int managersPerCompany() {
+        int managers = 0;
+        while ((long) (managers + 1) * settings.spanOfControl() + 1 < settings.usersPerCompany()) {
+            managers++;
+        }
+        return managers;
+    }
+    
+    private final class VirtualUser {
+        
+        private final String email;
+        private final boolean approver;
+        private final SplittableRandom random;
+        private final Deque<Long> inbox = new ArrayDeque<>();
+        private String token;
+        
+        VirtualUser(String email, boolean approver, SplittableRandom random) {
+            this.email = email;
+            this.approver = approver;
+            this.random = random;
+        }
+        
+        boolean approver() {
+            return approver;
+        }
+        
+        void run(long deadline) throws InterruptedException {
+            login();
+            while (System.nanoTime() < deadline) {
+                if (approver) {
+                    if (random.nextInt(settings.pendingWeight() + settings.decideWeight()) < settings.pendingWeight()) {
+                        readInbox();
+                    } else {
+                        decide();
+                    }
+                } else {
+                    if (random.nextInt(settings.submitWeight() + settings.myWeight()) < settings.submitWeight()) {
+                        submit();
+                    } else {
+                        send(MY_EXPENSES, get("/api/expenses/my?limit=20"));
+                    }
+                }
+                if (!settings.thinkTime().isZero()) {
+                    Thread.sleep(settings.thinkTime().toMillis());
+                }
+            }
+        }
+        
+        private void login() throws InterruptedException {
+            String body = json(Map.of("email", email, "password", settings.password()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            JsonNode response = send(LOGIN, request);
+            if (response == null) {
+                throw new IllegalStateException("Login failed for " + email + "; was the datagen data set generated?");
+            }
+            token = response.get("token").asText();
+        }
+        
+        private void submit() throws InterruptedException {
+            BigDecimal amount = BigDecimal.valueOf(Math.exp(Math.log(60) + random.nextDouble(-1.5, 2.5)))
+                    .setScale(2, RoundingMode.HALF_UP);
+            Map<String, Object> expense = new LinkedHashMap<>();
+            expense.put("amount", amount);
+            expense.put("currency", "USD");
+            expense.put("category", CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            expense.put("description", "Load test expense");
+            expense.put("expenseDate", LocalDate.now().minusDays(random.nextInt(30)).toString());
+            send(SUBMIT, authorized("/api/expenses")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json(expense)))
+                    .build());
+        }
+        
+        private void readInbox() throws InterruptedException {
+            JsonNode page = send(PENDING, get("/api/approvals/pending?limit=20"));
+            inbox.clear();
+            if (page != null) {
+                page.get("items").forEach(step -> inbox.add(step.get("id").asLong()));
+            }
+        }
+        
+        /**
+         * Decide the next step from the last inbox read (fetching the inbox first if it
+         * is empty): mostly approvals, some rejections.
+         */
+        private void decide() throws InterruptedException {
+            if (inbox.isEmpty()) {
+                readInbox();
+            }
+            Long stepId = inbox.poll();
+            if (stepId == null) {
+                decisionsWithoutWork.incrementAndGet();
+                return;
+            }
+            String decision = random.nextInt(10) == 0 ? "REJECTED" : "APPROVED";
+            send(DECIDE, authorized("/api/approvals/" + stepId)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(json(Map.of("decision", decision))))
+                    .build());
+        }
+        
+        private HttpRequest get(String path) {
+            return authorized(path).GET().build();
+        }
+        
+        private HttpRequest.Builder authorized(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token);
+        }
+    }
+    
+    /**
+     * Send a request and record its latency under the endpoint name.
+     * 
+     * @return Parsed body of a successful response, or null on errors
+     */
+    private JsonNode send(String endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            recorder.record(endpoint, start, response.statusCode());
+            if (response.statusCode() >= 400) {
+                return null;
+            }
+            return response.body().length == 0 ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            recorder.record(endpoint, start, 0);
+            return null;
+        }
+    }
+    
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static double errorRate(Map<String, Object> report) {
+        Map<String, Object> endpoints = (Map<String, Object>) report.get("endpoints");
+        return (double) ((Map<String, Object>) endpoints.get("ALL")).get("errorRate");
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        System.out.printf("%n%-30s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        ((Map<String, Object>) report.get("endpoints")).forEach((endpoint, value) -> {
+            Map<String, Object> summary = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) summary.get("latencyMillis");
+            System.out.printf("%-30s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint,
+                    summary.get("requests"), summary.get("errors"), summary.get("throughputPerSecond"),
+                    latency.get("p50"), latency.get("p95"), latency.get("p99"), latency.get("max"));
+        });
+    }
+    
+    /**
+     * Run settings (loadtest.*) and the datagen settings the user accounts derive from.
+     */
+    record Settings(int users, Duration duration, Duration warmup, Duration thinkTime, long seed,
+                    int submitWeight, int myWeight, int pendingWeight, int decideWeight,
+                    double maxErrorRate, Path report,
+                    long datagenSeed, int companies, int usersPerCompany, int spanOfControl, String password) {
+        
+        static Settings from(Environment env) {
+            String defaultReport = "target/loadtest/report-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+            Settings settings = new Settings(
+                    env.getProperty("loadtest.users", Integer.class, 50),
+                    env.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60)),
+                    env.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(15)),
+                    env.getProperty("loadtest.think-time", Duration.class, Duration.ZERO),
+                    env.getProperty("loadtest.seed", Long.class, 1L),
+                    env.getProperty("loadtest.mix.submit", Integer.class, 30),
+                    env.getProperty("loadtest.mix.my-expenses", Integer.class, 40),
+                    env.getProperty("loadtest.mix.pending", Integer.class, 20),
+                    env.getProperty("loadtest.mix.decide", Integer.class, 10),
+                    env.getProperty("loadtest.max-error-rate", Double.class, 1.0),
+                    Path.of(env.getProperty("loadtest.report", defaultReport)),
+                    env.getProperty("datagen.seed", Long.class, 42L),
+                    env.getProperty("datagen.companies", Integer.class, 10),
+                    env.getProperty("datagen.users-per-company", Integer.class, 200),
+                    env.getProperty("datagen.span-of-control", Integer.class, 8),
+                    env.getProperty("datagen.user-password", "password"));
+            if (settings.submitWeight() + settings.myWeight() == 0 || settings.pendingWeight() + settings.decideWeight() == 0) {
+                throw new IllegalArgumentException("loadtest.mix needs a submitter and an approver weight above zero");
+            }
+            return settings;
+        }
+        
+        /**
+         * Virtual users acting as approvers, in proportion to the approver share of the mix.
+         */
+        int approverUsers() {
+            int total = submitWeight + myWeight + pendingWeight + decideWeight;
+            return Math.max(1, Math.round((float) users * (pendingWeight + decideWeight) / total));
+        }
+        
+        Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("users", users);
+            description.put("approverUsers", approverUsers());
+            description.put("duration", duration.toString());
+            description.put("warmup", warmup.toString());
+            description.put("thinkTime", thinkTime.toString());
+            description.put("seed", seed);
+            description.put("mix", new TreeMap<>(Map.of(SUBMIT, submitWeight, MY_EXPENSES, myWeight,
+                    PENDING, pendingWeight, DECIDE, decideWeight)));
+            description.put("datagen", new TreeMap<>(Map.of("seed", datagenSeed, "companies", companies,
+                    "usersPerCompany", usersPerCompany, "spanOfControl", spanOfControl)));
+            return description;
+        }
+    }
+}
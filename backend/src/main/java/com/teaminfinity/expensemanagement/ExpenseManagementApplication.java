@@ -2,11 +2,13 @@ package com.teaminfinity.expensemanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Expense Management System.
  */
 @SpringBootApplication
+@EnableScheduling
 public class ExpenseManagementApplication {
 
 	public static void main(String[] args) {
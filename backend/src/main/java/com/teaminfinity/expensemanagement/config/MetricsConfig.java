@@ -0,0 +1,184 @@
+package com.teaminfinity.expensemanagement.config;
+
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.repository.ApprovalStepRepository;
+import com.teaminfinity.expensemanagement.repository.ExpenseRepository;
+import com.teaminfinity.expensemanagement.service.CurrencyRateService;
+import com.teaminfinity.expensemanagement.service.OcrJobService;
+import com.teaminfinity.expensemanagement.util.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Application metrics, on top of what Actuator binds by itself (HTTP server and
+ * client requests, Hikari pool, Hibernate statistics, JVM).
+ * 
+ * Services that already keep their own counters (rate cache, OCR queue, circuit
+ * breakers) are exposed here as function counters and gauges, read at scrape time.
+ * Timers and counters on the submission and approval paths are recorded by
+ * ExpenseService and ApprovalService.
+ * 
+ * Tags never carry user ids. Company ids are allowed on a few meters but capped at
+ * metrics.company-tag-limit distinct values; later companies are reported as "other".
+ */
+@Configuration
+public class MetricsConfig {
+    
+    public static final String COMPANY_TAG = "company";
+    static final String OTHER_COMPANY = "other";
+    
+    @Bean
+    public MeterFilter companyTagLimit(@Value("${metrics.company-tag-limit:100}") int limit) {
+        return new CompanyTagLimit(limit);
+    }
+    
+    /**
+     * Size of the approval backlog. Each scrape runs two count queries.
+     */
+    @Bean
+    public MeterBinder pendingWorkMetrics(ExpenseRepository expenseRepository,
+                                          ApprovalStepRepository approvalStepRepository) {
+        return registry -> {
+            Gauge.builder("expense.pending", expenseRepository,
+                            repository -> repository.countByStatus(ExpenseStatus.PENDING))
+                    .description("Expenses waiting for approval")
+                    .register(registry);
+            Gauge.builder("approval.steps.pending", approvalStepRepository,
+                            repository -> repository.countByDecision(ApprovalDecision.PENDING))
+                    .description("Approval steps waiting for a decision")
+                    .register(registry);
+        };
+    }
+    
+    @Bean
+    public MeterBinder currencyRateCacheMetrics(CurrencyRateService currencyRateService) {
+        return registry -> {
+            rateLookups(registry, currencyRateService, "hit", service -> service.getCacheStats().hits());
+            rateLookups(registry, currencyRateService, "stale", service -> service.getCacheStats().staleHits());
+            rateLookups(registry, currencyRateService, "miss", service -> service.getCacheStats().misses());
+            FunctionCounter.builder("currency.rates.refreshes", currencyRateService,
+                            service -> service.getCacheStats().refreshes())
+                    .description("Background refreshes of stale exchange rates")
+                    .register(registry);
+            FunctionCounter.builder("currency.rates.fetch.failures", currencyRateService,
+                            service -> service.getCacheStats().fetchFailures())
+                    .description("Failed calls to the exchange rate provider")
+                    .register(registry);
+        };
+    }
+    
+    @Bean
+    public MeterBinder ocrJobMetrics(OcrJobService ocrJobService) {
+        return registry -> {
+            Gauge.builder("ocr.jobs.queue.depth", ocrJobService, service -> service.getStats().queueDepth())
+                    .register(registry);
+            Gauge.builder("ocr.jobs.queue.capacity", ocrJobService, service -> service.getStats().queueCapacity())
+                    .register(registry);
+            ocrJobs(registry, ocrJobService, "submitted", service -> service.getStats().submitted());
+            ocrJobs(registry, ocrJobService, "rejected", service -> service.getStats().rejected());
+            ocrJobs(registry, ocrJobService, "succeeded", service -> service.getStats().succeeded());
+            ocrJobs(registry, ocrJobService, "failed", service -> service.getStats().failed());
+            Gauge.builder("ocr.jobs.wait.max", ocrJobService, service -> service.getStats().maxWaitMillis())
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("ocr.jobs.processing.max", ocrJobService, service -> service.getStats().maxProcessingMillis())
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+    
+    /**
+     * Circuit state as one gauge per state (1 for the current state, 0 otherwise),
+     * plus call counters and latency per breaker.
+     */
+    @Bean
+    public MeterBinder circuitBreakerMetrics(List<CircuitBreaker> circuitBreakers) {
+        return registry -> {
+            for (CircuitBreaker breaker : circuitBreakers) {
+                Tags tags = Tags.of("name", breaker.getName());
+                for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                    Gauge.builder("circuit.breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                            .tags(tags.and("state", state.name().toLowerCase()))
+                            .register(registry);
+                }
+                breakerCalls(registry, breaker, tags, "attempted", b -> b.getStats().calls());
+                breakerCalls(registry, breaker, tags, "failed", b -> b.getStats().failures());
+                breakerCalls(registry, breaker, tags, "rejected", b -> b.getStats().rejected());
+                FunctionCounter.builder("circuit.breaker.opened", breaker, b -> b.getStats().opened())
+                        .tags(tags)
+                        .register(registry);
+                Gauge.builder("circuit.breaker.latency.avg", breaker, b -> b.getStats().avgLatencyMillis())
+                        .tags(tags)
+                        .baseUnit("milliseconds")
+                        .register(registry);
+                Gauge.builder("circuit.breaker.latency.max", breaker, b -> b.getStats().maxLatencyMillis())
+                        .tags(tags)
+                        .baseUnit("milliseconds")
+                        .register(registry);
+            }
+        };
+    }
+    
+    private static void rateLookups(MeterRegistry registry, CurrencyRateService service, String result,
+                                    ToDoubleFunction<CurrencyRateService> count) {
+        FunctionCounter.builder("currency.rates.lookups", service, count)
+                .tag("result", result)
+                .register(registry);
+    }
+    
+    private static void ocrJobs(MeterRegistry registry, OcrJobService service, String outcome,
+                                ToDoubleFunction<OcrJobService> count) {
+        FunctionCounter.builder("ocr.jobs", service, count)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+    
+    private static void breakerCalls(MeterRegistry registry, CircuitBreaker breaker, Tags tags, String outcome,
+                                     ToDoubleFunction<CircuitBreaker> count) {
+        FunctionCounter.builder("circuit.breaker.calls", breaker, count)
+                .tags(tags.and("outcome", outcome))
+                .register(registry);
+    }
+    
+    /**
+     * Lets the first {@code limit} company ids through as tag values and maps the rest
+     * to "other", so the number of series stays bounded however many companies sign up.
+     * The check is not atomic, so a few ids more than the limit may slip in under load.
+     */
+    static class CompanyTagLimit implements MeterFilter {
+        
+        private final int limit;
+        private final Set<String> companies = ConcurrentHashMap.newKeySet();
+        
+        CompanyTagLimit(int limit) {
+            this.limit = limit;
+        }
+        
+        @Override
+        public Meter.Id map(Meter.Id id) {
+            String company = id.getTag(COMPANY_TAG);
+            if (company == null || companies.contains(company)) {
+                return id;
+            }
+            if (companies.size() < limit) {
+                companies.add(company);
+                return id;
+            }
+            return id.replaceTags(Tags.of(id.getTagsAsIterable()).and(COMPANY_TAG, OTHER_COMPANY));
+        }
+    }
+}
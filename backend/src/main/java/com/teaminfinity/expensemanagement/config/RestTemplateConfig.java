@@ -1,17 +1,183 @@
 package com.teaminfinity.expensemanagement.config;
 
+import com.teaminfinity.expensemanagement.util.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Configuration for RestTemplate used in external API calls.
+ * 
+ * Requests go through the JDK HttpClient rather than HttpURLConnection, whose
+ * connection cache synchronizes and would pin a virtual thread to its carrier
+ * while waiting on a slow provider. With spring.threads.virtual.enabled the
+ * client's own worker tasks run on virtual threads as well.
+ * 
+ * The client keeps connections alive and reuses them per host (idle timeout:
+ * -Djdk.httpclient.keepalive.timeout). Every call is bounded in time (connect and
+ * read timeouts) and in concurrency (at most max-connections-per-route requests
+ * in flight per host), so a hung provider cannot hold request threads for long.
+ * 
+ * Built from Boot's RestTemplateBuilder so outbound calls are timed as
+ * http.client.requests.
  */
 @Configuration
 public class RestTemplateConfig {
     
+    @Value("${external.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+    
+    @Value("${external.circuit-breaker.open-duration:30s}")
+    private Duration openDuration;
+    
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                     @Value("${external.http.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${external.http.read-timeout:5s}") Duration readTimeout,
+                                     @Value("${external.http.max-connections-per-route:20}") int maxConnectionsPerRoute) {
+        HttpClient.Builder httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout);
+        if (virtualThreads) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(readTimeout);
+        
+        return builder
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(new RouteLimiter(maxConnectionsPerRoute, connectTimeout))
+                .build();
+    }
+    
+    /**
+     * Breaker for the exchange rate provider (see CurrencyRateService).
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CircuitBreaker currencyRatesCircuitBreaker() {
+        return new CircuitBreaker("currency-rates", failureThreshold, openDuration, RestTemplateConfig::isProviderFailure);
+    }
+    
+    /**
+     * Breaker for the REST Countries API (see CountryCurrencyService).
+     */
+    @Bean
+    public CircuitBreaker countriesCircuitBreaker() {
+        return new CircuitBreaker("countries", failureThreshold, openDuration, RestTemplateConfig::isProviderFailure);
+    }
+    
+    /**
+     * Failures that open the breakers: timeouts, I/O errors, 5xx and unusable responses.
+     * A 4xx is the provider rejecting one request (e.g. an unknown currency), so callers
+     * cannot open the circuit for everyone by sending bad input.
+     */
+    public static boolean isProviderFailure(RuntimeException e) {
+        return !(e instanceof HttpClientErrorException);
+    }
+    
+    /**
+     * Caps concurrent requests per scheme/host/port. A request that cannot get a slot
+     * within the wait fails like an unreachable host. The slot is held until the
+     * response is closed, i.e. for as long as the connection is in use.
+     */
+    static class RouteLimiter implements ClientHttpRequestInterceptor {
+        
+        private final int maxPerRoute;
+        private final Duration maxWait;
+        private final Map<String, Semaphore> routes = new ConcurrentHashMap<>();
+        
+        RouteLimiter(int maxPerRoute, Duration maxWait) {
+            this.maxPerRoute = maxPerRoute;
+            this.maxWait = maxWait;
+        }
+        
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution) throws IOException {
+            URI uri = request.getURI();
+            String route = uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+            Semaphore slots = routes.computeIfAbsent(route, key -> new Semaphore(maxPerRoute));
+            
+            try {
+                if (!slots.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new ResourceAccessException("Too many concurrent requests to " + route);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("Interrupted waiting for a connection to " + route);
+            }
+            
+            try {
+                return new SlotReleasingResponse(execution.execute(request, body), slots);
+            } catch (IOException | RuntimeException e) {
+                slots.release();
+                throw e;
+            }
+        }
+    }
+    
+    private static class SlotReleasingResponse implements ClientHttpResponse {
+        
+        private final ClientHttpResponse delegate;
+        private final Semaphore slots;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        SlotReleasingResponse(ClientHttpResponse delegate, Semaphore slots) {
+            this.delegate = delegate;
+            this.slots = slots;
+        }
+        
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+        
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+        
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+        
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    slots.release();
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,162 @@
+package com.teaminfinity.expensemanagement.config;
+
+import com.teaminfinity.expensemanagement.util.SqlStatementRecorder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Per-request SQL statement accounting, for non-production profiles
+ * (sql.statements.per-request.enabled).
+ * 
+ * The DataSource is wrapped so that every JDBC statement is recorded, whether it comes
+ * from Hibernate or from JdbcTemplate (e.g. the import batches), and every request runs
+ * inside a {@link SqlStatementRecorder.Recording}. The count is
+ * sent as the X-Sql-Statements response header, recorded in the
+ * sql.statements.per-request summary (by method and URI pattern), and requests over
+ * sql.statements.per-request.warn-threshold are logged with their statements at debug
+ * level. Statements run on other threads (async exports, background refreshes) are
+ * not attributed to the request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.statements.per-request.enabled", havingValue = "true")
+public class SqlStatementConfig {
+    
+    public static final String HEADER = "X-Sql-Statements";
+    
+    /**
+     * Request attribute holding the request's recording (read by tests to list the statements).
+     */
+    public static final String RECORDING_ATTRIBUTE = SqlStatementConfig.class.getName() + ".recording";
+    
+    /**
+     * Wraps every DataSource bean in a statement-recording proxy. Static, so it is
+     * registered before the DataSource is created.
+     */
+    @Bean
+    public static BeanPostProcessor sqlStatementRecordingDataSource() {
+        return new BeanPostProcessor() {
+            
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? SqlStatementRecorder.wrap(dataSource) : bean;
+            }
+        };
+    }
+    
+    /**
+     * Registered ahead of the security filters, so token and user lookups are counted too.
+     */
+    @Bean
+    public FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter(
+            MeterRegistry meterRegistry,
+            @Value("${sql.statements.per-request.warn-threshold:20}") int warnThreshold) {
+        FilterRegistrationBean<SqlStatementFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementFilter(meterRegistry, warnThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+    
+    @Slf4j
+    static class SqlStatementFilter extends OncePerRequestFilter {
+        
+        private final MeterRegistry meterRegistry;
+        private final int warnThreshold;
+        
+        SqlStatementFilter(MeterRegistry meterRegistry, int warnThreshold) {
+            this.meterRegistry = meterRegistry;
+            this.warnThreshold = warnThreshold;
+        }
+        
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            try (SqlStatementRecorder.Recording recording = SqlStatementRecorder.start()) {
+                request.setAttribute(RECORDING_ATTRIBUTE, recording);
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    report(request, response, recording);
+                }
+            }
+        }
+        
+        private void report(HttpServletRequest request, HttpServletResponse response,
+                            SqlStatementRecorder.Recording recording) {
+            int count = recording.count();
+            // Responses with a body got the header from SqlStatementHeaderAdvice before they were committed
+            if (!response.isCommitted()) {
+                response.setHeader(HEADER, Integer.toString(count));
+            }
+            
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("sql.statements.per-request")
+                    .description("SQL statements run while handling one HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(count);
+            
+            if (count > warnThreshold) {
+                log.warn("{} {} ran {} SQL statements (threshold {})",
+                        request.getMethod(), request.getRequestURI(), count, warnThreshold);
+                if (log.isDebugEnabled()) {
+                    log.debug("Statements of {} {}:\n{}", request.getMethod(), request.getRequestURI(),
+                            String.join("\n", recording.statements()));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Adds the header just before a response body is written, while the count is final
+     * for the handler but the response is not yet committed.
+     */
+    @ControllerAdvice
+    @ConditionalOnProperty(name = "sql.statements.per-request.enabled", havingValue = "true")
+    static class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object> {
+        
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+        
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            if (request instanceof ServletServerHttpRequest servletRequest
+                    && servletRequest.getServletRequest().getAttribute(RECORDING_ATTRIBUTE)
+                            instanceof SqlStatementRecorder.Recording recording) {
+                response.getHeaders().set(HEADER, Integer.toString(recording.count()));
+            }
+            return body;
+        }
+    }
+}
@@ -2,9 +2,14 @@ package com.teaminfinity.expensemanagement.controller;
 
 import com.teaminfinity.expensemanagement.dto.approval.ApprovalDecisionRequest;
 import com.teaminfinity.expensemanagement.dto.approval.ApprovalStepResponse;
+import com.teaminfinity.expensemanagement.dto.approval.BulkApprovalRequest;
+import com.teaminfinity.expensemanagement.dto.approval.BulkApprovalResponse;
+import com.teaminfinity.expensemanagement.dto.common.CursorPage;
 import com.teaminfinity.expensemanagement.entity.ApprovalStep;
 import com.teaminfinity.expensemanagement.entity.AppUser;
 import com.teaminfinity.expensemanagement.service.ApprovalService;
+import com.teaminfinity.expensemanagement.util.PageCursor;
+import com.teaminfinity.expensemanagement.util.PageLimits;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -24,20 +29,20 @@ import java.util.stream.Collectors;
 public class ApprovalController {
     
     private final ApprovalService approvalService;
+    private final PageLimits pageLimits;
     
     /**
-     * Get pending approvals for current user.
+     * Get pending approvals for current user, newest first (keyset paginated).
      */
     @GetMapping("/pending")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<ApprovalStepResponse>> getPendingApprovals(@AuthenticationPrincipal AppUser currentUser) {
-        List<ApprovalStep> steps = approvalService.getPendingApprovalsForUser(currentUser.getId());
+    public ResponseEntity<CursorPage<ApprovalStepResponse>> getPendingApprovals(@RequestParam(required = false) String cursor,
+                                                                                @RequestParam(required = false) Integer limit,
+                                                                                @AuthenticationPrincipal AppUser currentUser) {
+        CursorPage<ApprovalStepResponse> page = approvalService.getPendingApprovalsForUser(
+                currentUser.getId(), PageCursor.decode(cursor), pageLimits.resolve(limit));
         
-        List<ApprovalStepResponse> response = steps.stream()
-                .map(this::mapToApprovalStepResponse)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(page);
     }
     
     /**
@@ -48,7 +53,7 @@ public class ApprovalController {
         List<ApprovalStep> steps = approvalService.getApprovalStepsForExpense(expenseId);
         
         List<ApprovalStepResponse> response = steps.stream()
-                .map(this::mapToApprovalStepResponse)
+                .map(ApprovalController::mapToApprovalStepResponse)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(response);
@@ -72,7 +77,18 @@ public class ApprovalController {
         return ResponseEntity.ok(mapToApprovalStepResponse(step));
     }
     
-    private ApprovalStepResponse mapToApprovalStepResponse(ApprovalStep step) {
+    /**
+     * Approve or reject many steps in one request (at most 500).
+     * Items are validated and reported individually; a failed item does not stop the others.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkApprovalResponse> processBulkApproval(@Valid @RequestBody BulkApprovalRequest request,
+                                                                    @AuthenticationPrincipal AppUser currentUser) {
+        return ResponseEntity.ok(approvalService.processBulkApproval(request.getItems(), currentUser.getId()));
+    }
+    
+    static ApprovalStepResponse mapToApprovalStepResponse(ApprovalStep step) {
         return new ApprovalStepResponse(
                 step.getId(),
                 step.getExpense().getId(),
@@ -82,7 +98,11 @@ public class ApprovalController {
                 step.getDecision().name(),
                 step.getComments(),
                 step.getDecidedAt(),
-                step.getCreatedAt()
+                step.getCreatedAt(),
+                step.getExpense().getAmount(),
+                step.getExpense().getCurrency(),
+                step.getExpense().getCategory(),
+                step.getExpense().getUser().getFullName()
         );
     }
 }
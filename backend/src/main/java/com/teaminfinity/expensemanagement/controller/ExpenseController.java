@@ -1,20 +1,41 @@
 package com.teaminfinity.expensemanagement.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teaminfinity.expensemanagement.dto.common.CursorPage;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseImportResponse;
 import com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseSummaryResponse;
 import com.teaminfinity.expensemanagement.dto.expense.SubmitExpenseRequest;
 import com.teaminfinity.expensemanagement.entity.AppUser;
 import com.teaminfinity.expensemanagement.entity.Expense;
 import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.enums.ExportFormat;
+import com.teaminfinity.expensemanagement.service.ExpenseExportService;
+import com.teaminfinity.expensemanagement.service.ExpenseImportService;
 import com.teaminfinity.expensemanagement.service.ExpenseService;
+import com.teaminfinity.expensemanagement.util.ExpenseImportReader;
+import com.teaminfinity.expensemanagement.util.PageCursor;
+import com.teaminfinity.expensemanagement.util.PageLimits;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 
 /**
  * Controller for expense management operations.
@@ -24,7 +45,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ExpenseController {
     
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    
     private final ExpenseService expenseService;
+    private final ExpenseImportService expenseImportService;
+    private final ExpenseExportService expenseExportService;
+    private final ObjectMapper objectMapper;
+    private final PageLimits pageLimits;
+    
+    @Value("${expense.export.timeout:30m}")
+    private Duration exportTimeout;
     
     /**
      * Submit a new expense.
@@ -39,39 +69,48 @@ public class ExpenseController {
                 request.getCategory(),
                 request.getDescription(),
                 request.getExpenseDate(),
-                request.getReceiptImageUrl()
+                request.getReceiptImageUrl() != null || request.getReceiptHash() == null
+                        ? request.getReceiptImageUrl()
+                        : ReceiptController.receiptUrl(request.getReceiptHash()),
+                request.getReceiptHash()
         );
         
         return ResponseEntity.ok(mapToExpenseResponse(expense));
     }
     
     /**
-     * Get all expenses for current user.
+     * Get expenses for current user, newest first (keyset paginated).
      */
     @GetMapping("/my")
-    public ResponseEntity<List<ExpenseResponse>> getMyExpenses(@AuthenticationPrincipal AppUser currentUser) {
-        List<Expense> expenses = expenseService.getUserExpenses(currentUser.getId());
-        
-        List<ExpenseResponse> response = expenses.stream()
-                .map(this::mapToExpenseResponse)
-                .collect(Collectors.toList());
+    public ResponseEntity<CursorPage<ExpenseResponse>> getMyExpenses(@RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer limit,
+                                                                     @AuthenticationPrincipal AppUser currentUser) {
+        CursorPage<ExpenseResponse> page = expenseService.getUserExpenses(
+                currentUser.getId(), PageCursor.decode(cursor), pageLimits.resolve(limit));
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(page);
     }
     
     /**
-     * Get expenses by status for current user.
+     * Get expenses by status for current user, newest first (keyset paginated).
      */
     @GetMapping("/my/status/{status}")
-    public ResponseEntity<List<ExpenseResponse>> getMyExpensesByStatus(@PathVariable ExpenseStatus status,
-                                                                       @AuthenticationPrincipal AppUser currentUser) {
-        List<Expense> expenses = expenseService.getUserExpensesByStatus(currentUser.getId(), status);
+    public ResponseEntity<CursorPage<ExpenseResponse>> getMyExpensesByStatus(@PathVariable ExpenseStatus status,
+                                                                             @RequestParam(required = false) String cursor,
+                                                                             @RequestParam(required = false) Integer limit,
+                                                                             @AuthenticationPrincipal AppUser currentUser) {
+        CursorPage<ExpenseResponse> page = expenseService.getUserExpensesByStatus(
+                currentUser.getId(), status, PageCursor.decode(cursor), pageLimits.resolve(limit));
         
-        List<ExpenseResponse> response = expenses.stream()
-                .map(this::mapToExpenseResponse)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(page);
+    }
+    
+    /**
+     * Get expense counts and amounts by status and category for current user (dashboard totals).
+     */
+    @GetMapping("/my/summary")
+    public ResponseEntity<ExpenseSummaryResponse> getMyExpenseSummary(@AuthenticationPrincipal AppUser currentUser) {
+        return ResponseEntity.ok(expenseService.getUserExpenseSummary(currentUser.getId()));
     }
     
     /**
@@ -84,21 +123,70 @@ public class ExpenseController {
     }
     
     /**
-     * Get all pending expenses for company (Admin/Manager only).
+     * Get pending expenses for company, newest first (Admin/Manager only, keyset paginated).
      */
     @GetMapping("/pending")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<ExpenseResponse>> getPendingExpenses(@AuthenticationPrincipal AppUser currentUser) {
-        List<Expense> expenses = expenseService.getPendingExpensesByCompany(currentUser.getCompany().getId());
+    public ResponseEntity<CursorPage<ExpenseResponse>> getPendingExpenses(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer limit,
+                                                                          @AuthenticationPrincipal AppUser currentUser) {
+        CursorPage<ExpenseResponse> page = expenseService.getPendingExpensesByCompany(
+                currentUser.getCompany().getId(), PageCursor.decode(cursor), pageLimits.resolve(limit));
+        
+        return ResponseEntity.ok(page);
+    }
+    
+    /**
+     * Bulk import expenses for the current company (Admin only).
+     * Accepts a streamed CSV (with header row) or NDJSON request body.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ExpenseImportResponse> importExpenses(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                InputStream body,
+                                                                @AuthenticationPrincipal AppUser currentUser) throws IOException {
+        try (ExpenseImportReader reader = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? ExpenseImportReader.ndjson(body, objectMapper)
+                : ExpenseImportReader.csv(body)) {
+            return ResponseEntity.ok(expenseImportService.importExpenses(currentUser.getCompany().getId(), reader));
+        }
+    }
+    
+    /**
+     * Stream company expenses as CSV or NDJSON (Admin/Manager only).
+     * Rows are written as they are read, so exports of any size use constant memory.
+     * Large exports stream for a long time, so this request alone gets expense.export.timeout
+     * instead of the application's default async timeout.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                @RequestParam(required = false) ExpenseStatus status,
+                                                                @RequestParam(required = false) String category,
+                                                                @AuthenticationPrincipal AppUser currentUser,
+                                                                NativeWebRequest webRequest) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(exportTimeout.toMillis());
+        }
         
-        List<ExpenseResponse> response = expenses.stream()
-                .map(this::mapToExpenseResponse)
-                .collect(Collectors.toList());
+        Long companyId = currentUser.getCompany().getId();
+        StreamingResponseBody body = out -> expenseExportService.exportExpenses(
+                companyId, from, to, status, category, format, out);
         
-        return ResponseEntity.ok(response);
+        boolean ndjson = format == ExportFormat.NDJSON;
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(ndjson ? "expenses.ndjson" : "expenses.csv")
+                        .build()
+                        .toString())
+                .body(body);
     }
     
-    private ExpenseResponse mapToExpenseResponse(Expense expense) {
+    static ExpenseResponse mapToExpenseResponse(Expense expense) {
         return new ExpenseResponse(
                 expense.getId(),
                 expense.getUser().getId(),
@@ -109,6 +197,7 @@ public class ExpenseController {
                 expense.getDescription(),
                 expense.getExpenseDate(),
                 expense.getReceiptImageUrl(),
+                expense.getReceiptHash(),
                 expense.getStatus().name(),
                 expense.getCreatedAt()
         );
@@ -4,11 +4,16 @@ import com.teaminfinity.expensemanagement.dto.integration.CountryResponse;
 import com.teaminfinity.expensemanagement.dto.integration.CurrencyRateResponse;
 import com.teaminfinity.expensemanagement.service.CountryCurrencyService;
 import com.teaminfinity.expensemanagement.service.CurrencyRateService;
+import com.teaminfinity.expensemanagement.util.CountryCatalog;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -22,21 +27,29 @@ public class IntegrationController {
     private final CountryCurrencyService countryCurrencyService;
     private final CurrencyRateService currencyRateService;
     
+    @Value("${api.countries.cache-max-age:1h}")
+    private Duration countriesCacheMaxAge;
+    
     /**
      * Get all countries with their default currencies.
+     * Served with an ETag, so clients revalidating an unchanged catalog get 304 Not Modified.
      */
     @GetMapping("/countries")
     public ResponseEntity<CountryResponse> getCountries() {
-        Map<String, String> countries = countryCurrencyService.getCountriesWithCurrencies();
-        return ResponseEntity.ok(new CountryResponse(countries));
+        CountryCatalog catalog = countryCurrencyService.getCatalog();
+        return ResponseEntity.ok()
+                .eTag(catalog.getEtag())
+                .cacheControl(CacheControl.maxAge(countriesCacheMaxAge).cachePublic())
+                .body(new CountryResponse(catalog.getCurrenciesByCountry()));
     }
     
     /**
-     * Get currency exchange rates for a base currency.
+     * Get currency exchange rates for a base currency (ISO 4217 code, any case; 400 otherwise).
      */
     @GetMapping("/currency-rates/{baseCurrency}")
     public ResponseEntity<CurrencyRateResponse> getCurrencyRates(@PathVariable String baseCurrency) {
-        Map<String, BigDecimal> rates = currencyRateService.getExchangeRates(baseCurrency);
-        return ResponseEntity.ok(new CurrencyRateResponse(baseCurrency, rates));
+        String base = baseCurrency.toUpperCase(Locale.ROOT);
+        Map<String, BigDecimal> rates = currencyRateService.getExchangeRates(base);
+        return ResponseEntity.ok(new CurrencyRateResponse(base, rates));
     }
 }
@@ -1,41 +1,172 @@
 package com.teaminfinity.expensemanagement.controller;
 
+import com.teaminfinity.expensemanagement.dto.ocr.OcrJobResponse;
 import com.teaminfinity.expensemanagement.dto.ocr.OcrResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.enums.OcrJobStatus;
+import com.teaminfinity.expensemanagement.service.OcrJobService;
 import com.teaminfinity.expensemanagement.service.OcrService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
 /**
  * Controller for OCR operations.
+ * Receipts are recognized by background workers (see {@link OcrJobService});
+ * waiting for a result uses async requests, so no servlet thread is held meanwhile.
  */
 @RestController
 @RequestMapping("/api/ocr")
 @RequiredArgsConstructor
 public class OcrController {
     
-    private final OcrService ocrService;
+    private final OcrJobService ocrJobService;
+    
+    @Value("${ocr.jobs.max-wait:30s}")
+    private Duration maxWait;
+    
+    @Value("${ocr.jobs.retry-after:5s}")
+    private Duration retryAfter;
     
     /**
      * Parse receipt image and extract expense details.
+     * Waits up to ocr.jobs.max-wait for the result; if it is not ready by then, answers
+     * 202 with the job so the client can poll it. Answers 429 when the OCR queue is full.
      */
     @PostMapping("/parse-receipt")
-    public ResponseEntity<OcrResponse> parseReceipt(@RequestParam("file") MultipartFile file) {
-        if (file.isEmpty()) {
-            return ResponseEntity.badRequest().build();
+    public DeferredResult<ResponseEntity<?>> parseReceipt(@RequestParam("file") MultipartFile file,
+                                                          @AuthenticationPrincipal AppUser currentUser) throws IOException {
+        Optional<ResponseEntity<?>> rejection = validate(file);
+        if (rejection.isPresent()) {
+            return completed(rejection.get());
+        }
+        
+        Optional<OcrJobService.OcrJob> job = ocrJobService.submit(ownerId(currentUser), store(file));
+        if (job.isEmpty()) {
+            return completed(queueFull());
+        }
+        
+        return await(job.get(), maxWait, done -> done.getStatus() == OcrJobStatus.SUCCEEDED
+                ? ResponseEntity.ok(mapToOcrResponse(done.getResult()))
+                : ResponseEntity.unprocessableEntity().body(mapToOcrJobResponse(done)));
+    }
+    
+    /**
+     * Queue a receipt for recognition and return the job immediately (202 Accepted).
+     * Answers 429 with Retry-After when the OCR queue is full.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@RequestParam("file") MultipartFile file,
+                                       @AuthenticationPrincipal AppUser currentUser) throws IOException {
+        Optional<ResponseEntity<?>> rejection = validate(file);
+        if (rejection.isPresent()) {
+            return rejection.get();
         }
         
-        OcrService.OcrResult result = ocrService.parseReceipt(file);
+        return ocrJobService.submit(ownerId(currentUser), store(file))
+                .<ResponseEntity<?>>map(OcrController::accepted)
+                .orElseGet(this::queueFull);
+    }
+    
+    /**
+     * Get an OCR job. With waitSeconds, the response is held (asynchronously) until the
+     * job finishes or the wait elapses, whichever comes first.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public DeferredResult<ResponseEntity<?>> getJob(@PathVariable String jobId,
+                                                    @RequestParam(defaultValue = "0") long waitSeconds,
+                                                    @AuthenticationPrincipal AppUser currentUser) {
+        Optional<OcrJobService.OcrJob> job = ocrJobService.getJob(jobId, ownerId(currentUser));
+        if (job.isEmpty()) {
+            return completed(ResponseEntity.notFound().build());
+        }
         
-        OcrResponse response = new OcrResponse(
+        Duration wait = Duration.ofSeconds(Math.max(0, waitSeconds));
+        return await(job.get(), wait.compareTo(maxWait) > 0 ? maxWait : wait,
+                done -> ResponseEntity.ok(mapToOcrJobResponse(done)));
+    }
+    
+    private DeferredResult<ResponseEntity<?>> await(OcrJobService.OcrJob job, Duration wait,
+                                                    Function<OcrJobService.OcrJob, ResponseEntity<?>> onFinished) {
+        if (job.isFinished() || wait.isZero()) {
+            return completed(job.isFinished() ? onFinished.apply(job) : accepted(job));
+        }
+        
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(wait.toMillis(), () -> accepted(job));
+        job.getCompletion().thenAccept(done -> result.setResult(onFinished.apply(done)));
+        return result;
+    }
+    
+    private static DeferredResult<ResponseEntity<?>> completed(ResponseEntity<?> response) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+    
+    private static Optional<ResponseEntity<?>> validate(MultipartFile file) {
+        if (file.isEmpty()) {
+            return Optional.of(ResponseEntity.badRequest().build());
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Move the upload to a temp file owned by the job (the multipart file is gone after the request).
+     */
+    private static Path store(MultipartFile file) throws IOException {
+        Path path = Files.createTempFile("ocr-", ".upload");
+        file.transferTo(path);
+        return path;
+    }
+    
+    private static Long ownerId(AppUser currentUser) {
+        return currentUser != null ? currentUser.getId() : null;
+    }
+    
+    private ResponseEntity<?> queueFull() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()))
+                .build();
+    }
+    
+    private static ResponseEntity<?> accepted(OcrJobService.OcrJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ocr/jobs/" + job.getId()))
+                .body(mapToOcrJobResponse(job));
+    }
+    
+    static OcrJobResponse mapToOcrJobResponse(OcrJobService.OcrJob job) {
+        return new OcrJobResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getSubmittedAt(),
+                job.getFinishedAt(),
+                job.getResult() != null ? mapToOcrResponse(job.getResult()) : null,
+                job.getError()
+        );
+    }
+    
+    static OcrResponse mapToOcrResponse(OcrService.OcrResult result) {
+        return new OcrResponse(
                 result.getAmount(),
                 result.getDate(),
                 result.getVendor(),
                 result.getCategory(),
                 result.getConfidence()
         );
-        
-        return ResponseEntity.ok(response);
     }
 }
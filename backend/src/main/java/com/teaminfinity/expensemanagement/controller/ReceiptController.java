@@ -0,0 +1,118 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.dto.receipt.ReceiptResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Receipt;
+import com.teaminfinity.expensemanagement.repository.ReceiptRepository;
+import com.teaminfinity.expensemanagement.service.ReceiptStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Controller for receipt upload and download.
+ */
+@RestController
+@RequestMapping("/api/receipts")
+@RequiredArgsConstructor
+public class ReceiptController {
+    
+    private final ReceiptStorageService receiptStorageService;
+    private final ReceiptRepository receiptRepository;
+    
+    /**
+     * Upload a receipt as the raw request body (not multipart), streamed straight to disk.
+     * Returns the content hash to reference from an expense.
+     */
+    @PostMapping(consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE,
+            "image/webp", "image/heic", MediaType.APPLICATION_PDF_VALUE})
+    public ResponseEntity<ReceiptResponse> uploadReceipt(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                         InputStream body) throws IOException {
+        ReceiptStorageService.StoredReceipt stored = receiptStorageService.store(body, contentType.toString());
+        return ResponseEntity.ok(new ReceiptResponse(
+                stored.hash(),
+                stored.contentType(),
+                stored.sizeBytes(),
+                receiptUrl(stored.hash()),
+                stored.duplicate()
+        ));
+    }
+    
+    /**
+     * Download a receipt attached to one of the current company's expenses.
+     * Supports single byte ranges (206) and ETag revalidation; the content never
+     * changes under its hash, so it may be cached indefinitely.
+     */
+    @GetMapping("/{hash}")
+    public ResponseEntity<StreamingResponseBody> downloadReceipt(@PathVariable String hash,
+                                                                 @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                 @AuthenticationPrincipal AppUser currentUser) {
+        Optional<Path> file = receiptStorageService.locate(hash);
+        Optional<Receipt> receipt = file.isPresent()
+                ? receiptRepository.findByHashForCompany(hash, currentUser.getCompany().getId())
+                : Optional.empty();
+        if (receipt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        String etag = "\"" + hash + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        
+        long size = receipt.get().getSizeBytes();
+        long start = 0;
+        long length = size;
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() != 1 || ranges.get(0).getRangeStart(size) >= size) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+            start = ranges.get(0).getRangeStart(size);
+            length = ranges.get(0).getRangeEnd(size) - start + 1;
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+        
+        long from = start;
+        long count = length;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(MediaType.parseMediaType(receipt.get().getContentType()))
+                .contentLength(length)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + from + "-" + (from + count - 1) + "/" + size);
+        }
+        return response.body(out -> receiptStorageService.transfer(file.get(), from, count, Channels.newChannel(out)));
+    }
+    
+    static String receiptUrl(String hash) {
+        return "/api/receipts/" + hash;
+    }
+}
@@ -0,0 +1,56 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.dto.report.RollupRebuildResponse;
+import com.teaminfinity.expensemanagement.dto.report.SpendSummaryResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.service.ExpenseRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.Locale;
+
+/**
+ * Controller for spend reporting (company dashboards).
+ */
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+    
+    private final ExpenseRollupService expenseRollupService;
+    
+    /**
+     * Get spend totals by month, category, status and currency (Admin/Manager only).
+     * Served from the maintained rollups; months are inclusive and formatted yyyy-MM.
+     * Also totals everything in reportCurrency (default: the company's currency) at
+     * historical rates.
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<SpendSummaryResponse> getSummary(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+                                                           @RequestParam(required = false) ExpenseStatus status,
+                                                           @RequestParam(required = false) String currency,
+                                                           @RequestParam(required = false) String reportCurrency,
+                                                           @AuthenticationPrincipal AppUser currentUser) {
+        return ResponseEntity.ok(expenseRollupService.getSummary(
+                currentUser.getCompany().getId(), from, to, status, currency,
+                reportCurrency != null ? reportCurrency.toUpperCase(Locale.ROOT) : null));
+    }
+    
+    /**
+     * Recompute the company's rollups from its expenses (Admin only).
+     * Reports how many stored buckets differed from the recomputed totals.
+     */
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RollupRebuildResponse> rebuildRollups(@AuthenticationPrincipal AppUser currentUser) {
+        return ResponseEntity.ok(expenseRollupService.rebuild(currentUser.getCompany().getId()));
+    }
+}
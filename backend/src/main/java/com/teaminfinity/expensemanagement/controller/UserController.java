@@ -74,12 +74,25 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Enable or disable a user in the same company (Admin only).
+     */
+    @PatchMapping("/{id}/enabled")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserResponse> setUserEnabled(@PathVariable Long id,
+                                                       @RequestParam boolean enabled,
+                                                       @AuthenticationPrincipal AppUser currentUser) {
+        AppUser user = userService.setUserEnabled(currentUser.getCompany().getId(), id, enabled);
+        return ResponseEntity.ok(mapToUserResponse(user));
+    }
+    
     /**
      * Get current user details.
+     * The authenticated principal only carries token claims, so the full user is loaded here.
      */
     @GetMapping("/me")
     public ResponseEntity<UserResponse> getCurrentUser(@AuthenticationPrincipal AppUser currentUser) {
-        return ResponseEntity.ok(mapToUserResponse(currentUser));
+        return ResponseEntity.ok(mapToUserResponse(userService.getUserById(currentUser.getId())));
     }
     
     private UserResponse mapToUserResponse(AppUser user) {
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -19,4 +20,8 @@ public class ApprovalStepResponse {
     private String comments;
     private LocalDateTime decidedAt;
     private LocalDateTime createdAt;
+    private BigDecimal expenseAmount;
+    private String expenseCurrency;
+    private String expenseCategory;
+    private String submitterName;
 }
@@ -0,0 +1,38 @@
+package com.teaminfinity.expensemanagement.dto.approval;
+
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkApprovalRequest {
+    public static final int MAX_ITEMS = 500;
+    
+    @NotEmpty(message = "At least one decision is required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " decisions per request")
+    @Valid
+    private List<Item> items = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotNull(message = "Step ID is required")
+        private Long stepId;
+        
+        @NotNull(message = "Decision is required")
+        private ApprovalDecision decision;
+        
+        private String comments; // Optional
+    }
+}
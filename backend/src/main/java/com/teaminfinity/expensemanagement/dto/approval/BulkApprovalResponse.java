@@ -0,0 +1,27 @@
+package com.teaminfinity.expensemanagement.dto.approval;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkApprovalResponse {
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results = new ArrayList<>(); // one per request item, in request order
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long stepId;
+        private Long expenseId;
+        private boolean success;
+        private String decision;
+        private String error;
+    }
+}
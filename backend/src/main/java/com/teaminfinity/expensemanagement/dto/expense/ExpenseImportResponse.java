@@ -0,0 +1,27 @@
+package com.teaminfinity.expensemanagement.dto.expense;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ExpenseImportResponse {
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private long approvalStepsCreated;
+    private List<RowError> errors = new ArrayList<>(); // Capped, see errorsTruncated
+    private boolean errorsTruncated;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
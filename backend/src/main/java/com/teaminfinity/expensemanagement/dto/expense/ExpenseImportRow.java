@@ -0,0 +1,19 @@
+package com.teaminfinity.expensemanagement.dto.expense;
+
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class ExpenseImportRow {
+    private String userEmail;
+    private BigDecimal amount;
+    private String currency;
+    private String category;
+    private String description;
+    private LocalDate expenseDate;
+    private String receiptImageUrl; // Optional
+    private ExpenseStatus status; // Optional, defaults to PENDING
+}
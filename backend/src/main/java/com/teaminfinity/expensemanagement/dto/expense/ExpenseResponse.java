@@ -21,6 +21,7 @@ public class ExpenseResponse {
     private String description;
     private LocalDate expenseDate;
     private String receiptImageUrl;
+    private String receiptHash;
     private String status;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,17 @@
+package com.teaminfinity.expensemanagement.dto.expense;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+@NoArgsConstructor
+public class ExpenseSummaryResponse {
+    private long expenseCount;
+    private Map<String, Long> countsByStatus = new TreeMap<>(); // status -> expense count
+    private Map<String, BigDecimal> amountsByStatus = new TreeMap<>(); // status -> total amount
+    private Map<String, BigDecimal> amountsByCategory = new TreeMap<>(); // category -> total amount
+}
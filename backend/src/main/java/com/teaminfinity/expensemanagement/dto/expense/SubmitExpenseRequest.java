@@ -2,6 +2,7 @@ package com.teaminfinity.expensemanagement.dto.expense;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
@@ -26,4 +27,7 @@ public class SubmitExpenseRequest {
     private LocalDate expenseDate;
     
     private String receiptImageUrl; // Optional
+    
+    @Pattern(regexp = "[0-9a-f]{64}", message = "Receipt hash must be a lowercase hex SHA-256")
+    private String receiptHash; // Optional, from POST /api/receipts
 }
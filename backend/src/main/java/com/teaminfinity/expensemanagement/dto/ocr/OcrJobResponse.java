@@ -0,0 +1,19 @@
+package com.teaminfinity.expensemanagement.dto.ocr;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcrJobResponse {
+    private String jobId;
+    private String status;
+    private Instant submittedAt;
+    private Instant finishedAt;
+    private OcrResponse result; // Set once the job has succeeded
+    private String error;       // Set if the job has failed
+}
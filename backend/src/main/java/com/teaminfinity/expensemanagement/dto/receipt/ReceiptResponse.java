@@ -0,0 +1,16 @@
+package com.teaminfinity.expensemanagement.dto.receipt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptResponse {
+    private String hash;        // SHA-256 of the content; pass as receiptHash when submitting an expense
+    private String contentType;
+    private long sizeBytes;
+    private String url;
+    private boolean duplicate;  // True if an identical file was already stored
+}
@@ -0,0 +1,14 @@
+package com.teaminfinity.expensemanagement.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResponse {
+    private long buckets;
+    private long expenses;
+    private long correctedBuckets; // Buckets whose stored totals differed from the recomputed ones
+}
@@ -0,0 +1,37 @@
+package com.teaminfinity.expensemanagement.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Data
+@NoArgsConstructor
+public class SpendSummaryResponse {
+    private List<Bucket> buckets = new ArrayList<>();
+    private Map<String, BigDecimal> totalsByCurrency = new TreeMap<>(); // currency code -> total
+    private long expenseCount;
+    private String reportCurrency;
+    private BigDecimal convertedTotal; // All buckets in reportCurrency, at their month's rates
+    private Set<String> unconvertedCurrencies = new TreeSet<>(); // Not valid ISO 4217, left out of convertedTotal
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private YearMonth month;
+        private String category;
+        private String status;
+        private String currency;
+        private BigDecimal totalAmount;
+        private long expenseCount;
+    }
+}
@@ -24,7 +24,8 @@ import java.util.List;
 public class AppUser implements UserDetails {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -48,6 +49,9 @@ public class AppUser implements UserDetails {
     @JoinColumn(name = "manager_id")
     private AppUser manager;
     
+    @Column(nullable = false)
+    private Boolean enabled = true;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -84,6 +88,6 @@ public class AppUser implements UserDetails {
     
     @Override
     public boolean isEnabled() {
-        return true;
+        return !Boolean.FALSE.equals(enabled);
     }
 }
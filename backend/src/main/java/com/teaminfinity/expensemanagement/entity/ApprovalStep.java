@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class ApprovalStep {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approval_steps_seq")
+    @SequenceGenerator(name = "approval_steps_seq", sequenceName = "approval_steps_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,6 +44,9 @@ public class ApprovalStep {
     @Column(name = "decided_at")
     private LocalDateTime decidedAt;
     
+    @Version
+    private Long version;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -1,5 +1,6 @@
 package com.teaminfinity.expensemanagement.entity;
 
+import com.teaminfinity.expensemanagement.service.ApprovalRuleCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
  * Created automatically on first user signup.
  */
 @Entity
+@EntityListeners(ApprovalRuleCacheInvalidator.class)
 @Table(name = "companies")
 @Data
 @NoArgsConstructor
@@ -19,7 +21,8 @@ import java.time.LocalDateTime;
 public class Company {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companies_seq")
+    @SequenceGenerator(name = "companies_seq", sequenceName = "companies_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -1,6 +1,7 @@
 package com.teaminfinity.expensemanagement.entity;
 
 import com.teaminfinity.expensemanagement.enums.ApprovalRuleType;
+import com.teaminfinity.expensemanagement.service.ApprovalRuleCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +14,7 @@ import java.math.BigDecimal;
  * Supports percentage-based, specific-approver, or hybrid rules.
  */
 @Entity
+@EntityListeners(ApprovalRuleCacheInvalidator.class)
 @Table(name = "company_approval_rules")
 @Data
 @NoArgsConstructor
@@ -20,7 +22,8 @@ import java.math.BigDecimal;
 public class CompanyApprovalRule {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_approval_rules_seq")
+    @SequenceGenerator(name = "company_approval_rules_seq", sequenceName = "company_approval_rules_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
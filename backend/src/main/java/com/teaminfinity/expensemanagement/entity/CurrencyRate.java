@@ -0,0 +1,48 @@
+package com.teaminfinity.expensemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Exchange rate from a base currency to a quote currency as snapshotted on a given day.
+ */
+@Entity
+@Table(name = "currency_rates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyRate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_rates_seq")
+    @SequenceGenerator(name = "currency_rates_seq", sequenceName = "currency_rates_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+    
+    @Column(name = "base_currency", nullable = false, length = 10)
+    private String baseCurrency;
+    
+    @Column(name = "quote_currency", nullable = false, length = 10)
+    private String quoteCurrency;
+    
+    @Column(nullable = false, precision = 24, scale = 10)
+    private BigDecimal rate;
+    
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (fetchedAt == null) {
+            fetchedAt = LocalDateTime.now();
+        }
+    }
+}
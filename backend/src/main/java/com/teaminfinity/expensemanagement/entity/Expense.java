@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 public class Expense {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,10 +47,25 @@ public class Expense {
     @Column(name = "receipt_image_url")
     private String receiptImageUrl;
     
+    /** SHA-256 of the stored receipt file (see ReceiptStorageService), if one was uploaded. */
+    @Column(name = "receipt_hash", length = 64)
+    private String receiptHash;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ExpenseStatus status = ExpenseStatus.PENDING;
     
+    /** Number of approval steps created for this expense. */
+    @Column(name = "total_steps", nullable = false)
+    private Integer totalSteps = 0;
+    
+    /** Number of those steps approved so far; the expense is approved when it reaches totalSteps. */
+    @Column(name = "approved_steps", nullable = false)
+    private Integer approvedSteps = 0;
+    
+    @Version
+    private Long version;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
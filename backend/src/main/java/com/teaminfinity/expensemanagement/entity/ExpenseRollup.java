@@ -0,0 +1,53 @@
+package com.teaminfinity.expensemanagement.entity;
+
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running spend total for one bucket: company, month, category, status and currency.
+ * Rows are only written through the delta queries in ExpenseRollupRepository
+ * (the id comes from the column default), never persisted through JPA.
+ */
+@Entity
+@Table(name = "expense_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseRollup {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+    
+    /** First day of the month the expenses fall in. */
+    @Column(name = "expense_month", nullable = false)
+    private LocalDate expenseMonth;
+    
+    @Column(nullable = false)
+    private String category;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExpenseStatus status;
+    
+    @Column(nullable = false, length = 10)
+    private String currency;
+    
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+    
+    @Column(name = "expense_count", nullable = false)
+    private Long expenseCount;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
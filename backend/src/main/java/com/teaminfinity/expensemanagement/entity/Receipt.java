@@ -0,0 +1,34 @@
+package com.teaminfinity.expensemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored receipt file, identified by the SHA-256 (hex) of its content.
+ * Rows are created through ReceiptRepository.insertIfAbsent, so concurrent
+ * uploads of the same file share one row.
+ */
+@Entity
+@Table(name = "receipts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Receipt {
+    
+    @Id
+    @Column(length = 64)
+    private String hash;
+    
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+    
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,9 @@
+package com.teaminfinity.expensemanagement.enums;
+
+/**
+ * File format for streamed data exports.
+ */
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,11 @@
+package com.teaminfinity.expensemanagement.enums;
+
+/**
+ * Lifecycle of an asynchronous receipt OCR job.
+ */
+public enum OcrJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -1,19 +1,53 @@
 package com.teaminfinity.expensemanagement.repository;
 
+import com.teaminfinity.expensemanagement.dto.approval.ApprovalStepResponse;
 import com.teaminfinity.expensemanagement.entity.ApprovalStep;
 import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ApprovalStepRepository extends JpaRepository<ApprovalStep, Long> {
     List<ApprovalStep> findByExpenseIdOrderBySequenceAsc(Long expenseId);
     List<ApprovalStep> findByApproverIdAndDecision(Long approverId, ApprovalDecision decision);
+    long countByDecision(ApprovalDecision decision);
     
     @Query("SELECT a FROM ApprovalStep a WHERE a.approver.id = :approverId AND a.decision = 'PENDING' ORDER BY a.createdAt DESC")
     List<ApprovalStep> findPendingApprovalsByApproverId(@Param("approverId") Long approverId);
+    
+    /**
+     * Steps by ID with their expense and its submitter fetched in the same statement
+     * (bulk decisions check ownership and update the expenses without further loads).
+     */
+    @Query("SELECT a FROM ApprovalStep a JOIN FETCH a.expense e JOIN FETCH e.user WHERE a.id IN :ids")
+    List<ApprovalStep> findAllWithExpenseByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * An expense's steps in order, with approver, expense and submitter fetched in the same
+     * statement (the approval history view maps all of them).
+     */
+    @Query("SELECT a FROM ApprovalStep a JOIN FETCH a.approver JOIN FETCH a.expense e JOIN FETCH e.user " +
+           "WHERE e.id = :expenseId ORDER BY a.sequence")
+    List<ApprovalStep> findWithApproverByExpenseId(@Param("expenseId") Long expenseId);
+    
+    /**
+     * One page of an approver's pending inbox as response rows, in a single statement
+     * (expense and submitter are joined, so no lazy association is loaded per row).
+     */
+    @Query("SELECT new com.teaminfinity.expensemanagement.dto.approval.ApprovalStepResponse(" +
+           "a.id, e.id, ap.id, ap.fullName, a.sequence, CAST(a.decision AS String), a.comments, a.decidedAt, a.createdAt, " +
+           "e.amount, e.currency, e.category, u.fullName) " +
+           "FROM ApprovalStep a JOIN a.approver ap JOIN a.expense e JOIN e.user u " +
+           "WHERE ap.id = :approverId AND a.decision = 'PENDING' " +
+           "AND (a.createdAt, a.id) < (:createdAt, :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<ApprovalStepResponse> findPendingInboxPage(@Param("approverId") Long approverId,
+                                                    @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                    Limit limit);
 }
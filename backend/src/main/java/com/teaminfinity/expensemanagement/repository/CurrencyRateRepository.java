@@ -0,0 +1,21 @@
+package com.teaminfinity.expensemanagement.repository;
+
+import com.teaminfinity.expensemanagement.entity.CurrencyRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CurrencyRateRepository extends JpaRepository<CurrencyRate, Long> {
+    
+    List<CurrencyRate> findByBaseCurrencyOrderByRateDateAsc(String baseCurrency);
+    
+    @Modifying
+    @Query("DELETE FROM CurrencyRate r WHERE r.baseCurrency = :baseCurrency AND r.rateDate = :rateDate")
+    int deleteSnapshot(@Param("baseCurrency") String baseCurrency, @Param("rateDate") LocalDate rateDate);
+}
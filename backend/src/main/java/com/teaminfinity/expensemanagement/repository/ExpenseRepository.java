@@ -1,19 +1,81 @@
 package com.teaminfinity.expensemanagement.repository;
 
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse;
 import com.teaminfinity.expensemanagement.entity.Expense;
 import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> findByUserId(Long userId);
     List<Expense> findByUserIdAndStatus(Long userId, ExpenseStatus status);
+    long countByStatus(ExpenseStatus status);
     
     @Query("SELECT e FROM Expense e WHERE e.user.company.id = :companyId AND e.status = :status")
     List<Expense> findByCompanyIdAndStatus(@Param("companyId") Long companyId, @Param("status") ExpenseStatus status);
+    
+    /**
+     * Count and amount of a user's expenses per (status, category) group:
+     * rows of [status, category, count, amount].
+     */
+    @Query("SELECT e.status, e.category, COUNT(e), SUM(e.amount) FROM Expense e " +
+           "WHERE e.user.id = :userId GROUP BY e.status, e.category")
+    List<Object[]> summarizeByUserId(@Param("userId") Long userId);
+    
+    // Keyset pages, newest first: rows strictly after the (createdAt, id) cursor.
+    // Projected straight into responses (joined to the submitter), so a page is one
+    // statement and no entities enter the persistence context.
+    
+    String EXPENSE_RESPONSE = "SELECT new com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse(" +
+            "e.id, u.id, u.fullName, e.amount, e.currency, e.category, e.description, e.expenseDate, " +
+            "e.receiptImageUrl, e.receiptHash, CAST(e.status AS String), e.createdAt) " +
+            "FROM Expense e JOIN e.user u ";
+    
+    @Query(EXPENSE_RESPONSE + "WHERE u.id = :userId " +
+           "AND (e.createdAt, e.id) < (:createdAt, :id) ORDER BY e.createdAt DESC, e.id DESC")
+    List<ExpenseResponse> findResponsePageByUserId(@Param("userId") Long userId,
+                                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                   Limit limit);
+    
+    @Query(EXPENSE_RESPONSE + "WHERE u.id = :userId AND e.status = :status " +
+           "AND (e.createdAt, e.id) < (:createdAt, :id) ORDER BY e.createdAt DESC, e.id DESC")
+    List<ExpenseResponse> findResponsePageByUserIdAndStatus(@Param("userId") Long userId, @Param("status") ExpenseStatus status,
+                                                            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                            Limit limit);
+    
+    @Query(EXPENSE_RESPONSE + "WHERE u.company.id = :companyId AND e.status = :status " +
+           "AND (e.createdAt, e.id) < (:createdAt, :id) ORDER BY e.createdAt DESC, e.id DESC")
+    List<ExpenseResponse> findResponsePageByCompanyIdAndStatus(@Param("companyId") Long companyId, @Param("status") ExpenseStatus status,
+                                                               @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                               Limit limit);
+    
+    /**
+     * Forward-only stream of a company's expenses for export, oldest first.
+     * Null filters are ignored. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Expense e JOIN FETCH e.user u WHERE u.company.id = :companyId " +
+           "AND (:fromDate IS NULL OR e.expenseDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR e.expenseDate <= :toDate) " +
+           "AND (:status IS NULL OR e.status = :status) " +
+           "AND (:category IS NULL OR e.category = :category) " +
+           "ORDER BY e.id")
+    Stream<Expense> streamForExport(@Param("companyId") Long companyId,
+                                    @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+                                    @Param("status") ExpenseStatus status, @Param("category") String category);
 }
@@ -0,0 +1,75 @@
+package com.teaminfinity.expensemanagement.repository;
+
+import com.teaminfinity.expensemanagement.entity.ExpenseRollup;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, Long> {
+    
+    /**
+     * Add a delta to an existing bucket. The row lock serializes concurrent deltas.
+     *
+     * @return 1 if the bucket exists, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE expense_rollups SET total_amount = total_amount + :amount, " +
+                   "expense_count = expense_count + :count, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE company_id = :companyId AND expense_month = :month AND category = :category " +
+                   "AND status = :status AND currency = :currency", nativeQuery = true)
+    int addToBucket(@Param("companyId") Long companyId, @Param("month") LocalDate month,
+                    @Param("category") String category, @Param("status") String status,
+                    @Param("currency") String currency,
+                    @Param("amount") BigDecimal amount, @Param("count") long count);
+    
+    /**
+     * Create a bucket with the given totals, unless a concurrent transaction created it first.
+     *
+     * @return 1 if inserted, 0 if the bucket already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_rollups (company_id, expense_month, category, status, currency, " +
+                   "total_amount, expense_count, updated_at) " +
+                   "VALUES (:companyId, :month, :category, :status, :currency, :amount, :count, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertBucket(@Param("companyId") Long companyId, @Param("month") LocalDate month,
+                     @Param("category") String category, @Param("status") String status,
+                     @Param("currency") String currency,
+                     @Param("amount") BigDecimal amount, @Param("count") long count);
+    
+    /**
+     * Non-empty buckets for a company, optionally filtered. Null filters are ignored.
+     */
+    @Query("SELECT r FROM ExpenseRollup r WHERE r.companyId = :companyId AND r.expenseCount > 0 " +
+           "AND (:fromMonth IS NULL OR r.expenseMonth >= :fromMonth) " +
+           "AND (:toMonth IS NULL OR r.expenseMonth <= :toMonth) " +
+           "AND (:status IS NULL OR r.status = :status) " +
+           "AND (:currency IS NULL OR r.currency = :currency) " +
+           "ORDER BY r.expenseMonth, r.category, r.status, r.currency")
+    List<ExpenseRollup> findSummary(@Param("companyId") Long companyId,
+                                    @Param("fromMonth") LocalDate fromMonth, @Param("toMonth") LocalDate toMonth,
+                                    @Param("status") ExpenseStatus status, @Param("currency") String currency);
+    
+    List<ExpenseRollup> findByCompanyId(Long companyId);
+    
+    @Modifying
+    @Query("DELETE FROM ExpenseRollup r WHERE r.companyId = :companyId")
+    int deleteByCompanyId(@Param("companyId") Long companyId);
+    
+    /**
+     * Recompute a company's buckets from the expenses table: one row per bucket of
+     * [year, month, category, status, currency, total amount, expense count].
+     */
+    @Query("SELECT YEAR(e.expenseDate), MONTH(e.expenseDate), e.category, e.status, e.currency, " +
+           "SUM(e.amount), COUNT(e) FROM Expense e WHERE e.user.company.id = :companyId " +
+           "GROUP BY YEAR(e.expenseDate), MONTH(e.expenseDate), e.category, e.status, e.currency")
+    List<Object[]> aggregateExpenses(@Param("companyId") Long companyId);
+}
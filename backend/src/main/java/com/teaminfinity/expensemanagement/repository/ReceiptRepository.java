@@ -0,0 +1,35 @@
+package com.teaminfinity.expensemanagement.repository;
+
+import com.teaminfinity.expensemanagement.entity.Receipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ReceiptRepository extends JpaRepository<Receipt, String> {
+    
+    /**
+     * Record a stored file, unless it is already known (duplicate upload).
+     *
+     * @return 1 if inserted, 0 if the receipt already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO receipts (hash, content_type, size_bytes, created_at) " +
+                   "VALUES (:hash, :contentType, :sizeBytes, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("contentType") String contentType,
+                       @Param("sizeBytes") long sizeBytes);
+    
+    /**
+     * Find a receipt attached to at least one expense of the given company.
+     */
+    @Query("SELECT r FROM Receipt r WHERE r.hash = :hash AND EXISTS (" +
+           "SELECT 1 FROM Expense e WHERE e.receiptHash = r.hash AND e.user.company.id = :companyId)")
+    Optional<Receipt> findByHashForCompany(@Param("hash") String hash, @Param("companyId") Long companyId);
+}
@@ -2,7 +2,10 @@ package com.teaminfinity.expensemanagement.repository;
 
 import com.teaminfinity.expensemanagement.entity.AppUser;
 import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.security.UserStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +17,10 @@ public interface UserRepository extends JpaRepository<AppUser, Long> {
     List<AppUser> findByCompanyId(Long companyId);
     List<AppUser> findByCompanyIdAndRole(Long companyId, Role role);
     boolean existsByEmail(String email);
+    boolean existsByCompanyId(Long companyId);
+    
+    @Query("SELECT new com.teaminfinity.expensemanagement.security.UserStatus(" +
+           "u.id, u.enabled, u.role, u.company.id, m.id, u.fullName) " +
+           "FROM AppUser u LEFT JOIN u.manager m WHERE u.id = :id")
+    Optional<UserStatus> findStatusById(@Param("id") Long id);
 }
@@ -1,13 +1,20 @@
 package com.teaminfinity.expensemanagement.security;
 
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -16,6 +23,11 @@ import java.io.IOException;
 
 /**
  * JWT authentication filter that validates tokens on each request.
+ * 
+ * In stateless mode the principal is built from the token claims (one parse)
+ * plus the cached {@link UserStatus}, so no user row is loaded per request.
+ * Tokens without the claims (issued before stateless mode) fall back to
+ * loading the user from the database.
  */
 @Component
 @RequiredArgsConstructor
@@ -23,6 +35,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+    
+    @Value("${security.jwt.stateless:true}")
+    private boolean stateless;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -31,24 +47,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
-        
-        // Extract JWT token from Authorization header
+        // Extract and verify JWT token from Authorization header
+        Claims claims = null;
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.error("Error extracting username from JWT", e);
+                claims = jwtUtil.parseToken(authorizationHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.debug("Rejected JWT: " + e.getMessage());
             }
         }
         
-        // Validate token and set authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // Resolve principal and set authentication
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = stateless && claims.get(JwtUtil.CLAIM_USER_ID) != null
+                    ? principalFromClaims(claims)
+                    : loadUser(claims.getSubject());
             
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null && userDetails.isEnabled()) {
                 UsernamePasswordAuthenticationToken authenticationToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -58,4 +73,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Build a lightweight (detached) principal from token claims.
+     * Returns null if the user was deleted or disabled, or if their role or
+     * company changed since the token was issued.
+     */
+    private AppUser principalFromClaims(Claims claims) {
+        Long userId = ((Number) claims.get(JwtUtil.CLAIM_USER_ID)).longValue();
+        Role role = Role.valueOf(claims.get(JwtUtil.CLAIM_ROLE, String.class));
+        Long companyId = ((Number) claims.get(JwtUtil.CLAIM_COMPANY_ID)).longValue();
+        
+        UserStatus status = userStatusCache.get(userId).orElse(null);
+        if (status == null || !status.isEnabled() || status.role() != role || !companyId.equals(status.companyId())) {
+            return null;
+        }
+        
+        Company company = new Company();
+        company.setId(companyId);
+        
+        AppUser user = new AppUser();
+        user.setId(userId);
+        user.setEmail(claims.getSubject());
+        user.setFullName(status.fullName());
+        user.setRole(role);
+        user.setCompany(company);
+        user.setEnabled(true);
+        if (status.managerId() != null) {
+            AppUser manager = new AppUser();
+            manager.setId(status.managerId());
+            user.setManager(manager);
+        }
+        return user;
+    }
+    
+    private UserDetails loadUser(String email) {
+        try {
+            return userDetailsService.loadUserByUsername(email);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 }
@@ -1,31 +1,65 @@
 package com.teaminfinity.expensemanagement.security;
 
+import com.teaminfinity.expensemanagement.entity.AppUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
  * Utility class for JWT token generation and validation.
+ * 
+ * The signing key and parser are built once at startup (the parser is
+ * immutable and thread-safe). Each token is verified once; the verified
+ * claims are then cached by token hash until the token expires, so repeat
+ * requests with the same token cost a hash and a map lookup. A cache size
+ * of 0 turns the cache off.
  */
 @Component
 public class JwtUtil {
     
+    /** Claims carried by tokens for stateless authentication. */
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_COMPANY_ID = "cid";
+    
     @Value("${jwt.secret}")
     private String secret;
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+    
+    private Key signingKey;
+    private JwtParser parser;
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
     /**
      * Extract username (email) from JWT token.
      */
@@ -44,27 +78,45 @@ public class JwtUtil {
      * Extract specific claim from JWT token.
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Parse and verify a token (signature and expiry).
+     * Returns cached claims if the same token was verified before and has not expired.
+     * The returned claims are shared and must not be modified.
+     * 
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     */
+    public Claims parseToken(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return cached.claims();
+            }
+            verifiedTokens.remove(key, cached);
+        }
+        
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null && verifiedCacheSize > 0) {
+            cacheVerified(key, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
     }
     
     /**
      * Generate JWT token for user.
+     * Tokens for application users also carry the user id, role and company id.
      */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof AppUser user && user.getId() != null) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_COMPANY_ID, user.getCompany().getId());
+        }
         return createToken(claims, userDetails.getUsername());
     }
     
@@ -77,20 +129,47 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
     /**
      * Validate JWT token against user details.
+     * Signature and expiry are verified by the (single) parse.
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final String username = parseToken(token).getSubject();
+        return username.equals(userDetails.getUsername());
+    }
+    
+    int verifiedCacheSize() {
+        return verifiedTokens.size();
+    }
+    
+    /**
+     * Add a verified token, keeping the cache bounded: expired entries are
+     * swept first, and if that is not enough the cache is cleared.
+     */
+    private void cacheVerified(String key, VerifiedToken token) {
+        if (verifiedTokens.size() >= verifiedCacheSize) {
+            long now = System.currentTimeMillis();
+            verifiedTokens.values().removeIf(t -> t.expiresAtMillis() <= now);
+            if (verifiedTokens.size() >= verifiedCacheSize) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(key, token);
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    private record VerifiedToken(Claims claims, long expiresAtMillis) {
     }
 }
@@ -0,0 +1,14 @@
+package com.teaminfinity.expensemanagement.security;
+
+import com.teaminfinity.expensemanagement.enums.Role;
+
+/**
+ * The parts of a user that can change while a token is still valid.
+ * Checked on every stateless request (through {@link UserStatusCache}).
+ */
+public record UserStatus(Long id, Boolean enabled, Role role, Long companyId, Long managerId, String fullName) {
+    
+    public boolean isEnabled() {
+        return !Boolean.FALSE.equals(enabled);
+    }
+}
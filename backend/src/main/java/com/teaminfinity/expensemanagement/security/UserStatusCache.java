@@ -0,0 +1,66 @@
+package com.teaminfinity.expensemanagement.security;
+
+import com.teaminfinity.expensemanagement.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of {@link UserStatus} by user id.
+ * 
+ * Lets the JWT filter authenticate without a database query per request,
+ * while disabled or deleted users are still cut off within one TTL
+ * (immediately on the node that made the change, via {@link #evict}).
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusCache {
+    
+    private final UserRepository userRepository;
+    
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    
+    @Value("${security.jwt.user-status-ttl:30s}")
+    private Duration ttl;
+    
+    /**
+     * Get the current status of a user.
+     * 
+     * @return The status, or empty if the user no longer exists
+     */
+    public Optional<UserStatus> get(Long userId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry == null || now - entry.loadedAt() > ttl.toNanos()) {
+            entry = new Entry(userRepository.findStatusById(userId), now);
+            entries.put(userId, entry);
+        }
+        return entry.status();
+    }
+    
+    /**
+     * Drop a user's cached status, now and again when the current transaction
+     * completes, so a concurrent request cannot re-cache the pre-commit status.
+     */
+    public void evict(Long userId) {
+        entries.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.remove(userId);
+                }
+            });
+        }
+    }
+    
+    private record Entry(Optional<UserStatus> status, long loadedAt) {
+    }
+}
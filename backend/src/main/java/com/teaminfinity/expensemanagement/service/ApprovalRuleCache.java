@@ -0,0 +1,98 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.CompanyApprovalRule;
+import com.teaminfinity.expensemanagement.repository.CompanyApprovalRuleRepository;
+import com.teaminfinity.expensemanagement.repository.CompanyRepository;
+import com.teaminfinity.expensemanagement.util.ApprovalEvaluator;
+import com.teaminfinity.expensemanagement.util.CompiledRuleSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of compiled approval rule sets, keyed by company.
+ * 
+ * Entries are evicted by {@link ApprovalRuleCacheInvalidator} whenever a
+ * company's rules or approver flag change through JPA. The TTL is only a
+ * safety net for changes made outside the application (e.g. manual SQL).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApprovalRuleCache {
+    
+    private final CompanyRepository companyRepository;
+    private final CompanyApprovalRuleRepository approvalRuleRepository;
+    private final ApprovalEvaluator approvalEvaluator;
+    
+    private final Map<Long, CompiledRuleSet> ruleSets = new ConcurrentHashMap<>();
+    // Per-company eviction counters, so a load that raced an eviction is not cached
+    private final Map<Long, AtomicLong> evictions = new ConcurrentHashMap<>();
+    
+    @Value("${approval.rules.cache-ttl:10m}")
+    private Duration ttl;
+    
+    /**
+     * Get the compiled rule set for a company, compiling it on first use or after eviction.
+     * Rules are loaded outside the map operation: the query may auto-flush pending
+     * changes, which calls back into {@link #evict} for the same company.
+     * 
+     * A set loaded while the company was evicted may predate the change, so it is
+     * returned to this caller but not kept: the next lookup loads again.
+     */
+    public CompiledRuleSet getRuleSet(Long companyId) {
+        CompiledRuleSet ruleSet = ruleSets.get(companyId);
+        if (ruleSet != null && !isExpired(ruleSet)) {
+            return ruleSet;
+        }
+        AtomicLong evictionCount = evictionCount(companyId);
+        long evictionsBeforeLoad = evictionCount.get();
+        CompiledRuleSet loaded = load(companyId);
+        ruleSets.put(companyId, loaded);
+        // evict bumps the counter before removing, so either it removes this entry
+        // or the counter has already moved and the entry is withdrawn here
+        if (evictionCount.get() != evictionsBeforeLoad) {
+            ruleSets.remove(companyId, loaded);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Drop a company's compiled rules so the next lookup recompiles them.
+     */
+    public void evict(Long companyId) {
+        if (companyId == null) {
+            return;
+        }
+        evictionCount(companyId).incrementAndGet();
+        if (ruleSets.remove(companyId) != null) {
+            log.debug("Evicted compiled approval rules for company {}", companyId);
+        }
+    }
+    
+    private AtomicLong evictionCount(Long companyId) {
+        return evictions.computeIfAbsent(companyId, id -> new AtomicLong());
+    }
+    
+    private boolean isExpired(CompiledRuleSet ruleSet) {
+        return ruleSet.getCompiledAt().plus(ttl).isBefore(Instant.now());
+    }
+    
+    private CompiledRuleSet load(Long companyId) {
+        Company company = companyRepository.findById(companyId)
+                .orElseThrow(() -> new RuntimeException("Company not found"));
+        List<CompanyApprovalRule> rules = approvalRuleRepository
+                .findByCompanyIdAndActiveOrderBySequenceAsc(companyId, true);
+        
+        return approvalEvaluator.compile(companyId, rules, Boolean.TRUE.equals(company.getIsManagerApprover()));
+    }
+}
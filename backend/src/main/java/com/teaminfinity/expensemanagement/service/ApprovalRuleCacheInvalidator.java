@@ -0,0 +1,54 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.CompanyApprovalRule;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that evicts compiled approval rules when the
+ * underlying rows change. Eviction happens immediately and again after
+ * commit, so a concurrent lookup cannot re-cache the pre-commit rules.
+ * 
+ * Hibernate instantiates listeners while building the EntityManagerFactory,
+ * so the cache (which needs repositories) is resolved lazily.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApprovalRuleCacheInvalidator {
+    
+    private final ObjectProvider<ApprovalRuleCache> approvalRuleCache;
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Long companyId = null;
+        if (entity instanceof CompanyApprovalRule rule && rule.getCompany() != null) {
+            companyId = rule.getCompany().getId();
+        } else if (entity instanceof Company company) {
+            companyId = company.getId();
+        }
+        if (companyId == null) {
+            return;
+        }
+        
+        Long evictedCompanyId = companyId;
+        ApprovalRuleCache cache = approvalRuleCache.getObject();
+        cache.evict(evictedCompanyId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(evictedCompanyId);
+                }
+            });
+        }
+    }
+}
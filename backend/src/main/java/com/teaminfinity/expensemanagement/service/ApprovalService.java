@@ -1,67 +1,165 @@
 package com.teaminfinity.expensemanagement.service;
 
+import com.teaminfinity.expensemanagement.dto.approval.ApprovalStepResponse;
+import com.teaminfinity.expensemanagement.dto.approval.BulkApprovalRequest;
+import com.teaminfinity.expensemanagement.dto.approval.BulkApprovalResponse;
+import com.teaminfinity.expensemanagement.dto.common.CursorPage;
 import com.teaminfinity.expensemanagement.entity.ApprovalStep;
-import com.teaminfinity.expensemanagement.entity.AppUser;
 import com.teaminfinity.expensemanagement.entity.Expense;
 import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
 import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
 import com.teaminfinity.expensemanagement.repository.ApprovalStepRepository;
 import com.teaminfinity.expensemanagement.repository.ExpenseRepository;
+import com.teaminfinity.expensemanagement.repository.UserRepository;
+import com.teaminfinity.expensemanagement.util.PageCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing approval workflows.
+ * 
+ * Decisions are timed including commit and retries (approval.decision, by mode), counted
+ * by decision (expense.approvals) and their optimistic-lock retries are counted too
+ * (approval.decision.retries).
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ApprovalService {
     
+    private static final String STEP_NOT_FOUND = "Approval step not found";
+    private static final String NOT_AUTHORIZED = "User is not authorized to approve this step";
+    private static final String ALREADY_PROCESSED = "This approval step has already been processed";
+    
     private final ApprovalStepRepository approvalStepRepository;
     private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final ExpenseRollupService expenseRollupService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${approval.decision.max-attempts:5}")
+    private int maxAttempts;
+    
+    private Timer singleDecisionTimer;
+    private Timer bulkDecisionTimer;
+    
+    @PostConstruct
+    void registerMeters() {
+        singleDecisionTimer = decisionTimer("single");
+        bulkDecisionTimer = decisionTimer("bulk");
+    }
+    
+    private Timer decisionTimer(String mode) {
+        return Timer.builder("approval.decision")
+                .description("Applying approval decisions, including commit and conflict retries")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
     
     /**
-     * Create an approval step for an expense.
+     * Create the approval steps for an expense, one per approver in order.
+     * Steps are persisted together so Hibernate can write them as a single JDBC batch.
+     * Approvers are referenced by ID only, so no user rows are loaded.
      */
     @Transactional
-    public ApprovalStep createApprovalStep(Expense expense, AppUser approver, int sequence) {
-        ApprovalStep step = new ApprovalStep();
-        step.setExpense(expense);
-        step.setApprover(approver);
-        step.setSequence(sequence);
-        step.setDecision(ApprovalDecision.PENDING);
+    public List<ApprovalStep> createApprovalSteps(Expense expense, List<Long> approverIds) {
+        List<ApprovalStep> steps = new ArrayList<>(approverIds.size());
+        for (int i = 0; i < approverIds.size(); i++) {
+            ApprovalStep step = new ApprovalStep();
+            step.setExpense(expense);
+            step.setApprover(userRepository.getReferenceById(approverIds.get(i)));
+            step.setSequence(i + 1);
+            step.setDecision(ApprovalDecision.PENDING);
+            steps.add(step);
+        }
         
-        return approvalStepRepository.save(step);
+        return approvalStepRepository.saveAll(steps);
     }
     
     /**
      * Process approval or rejection decision.
      * Updates expense status if all approvals are complete or any rejection occurs.
      * 
+     * Concurrent decisions on one expense are serialized by the version columns on the
+     * step and the expense: the loser of a race fails with a concurrency conflict and is
+     * retried against fresh state, up to approval.decision.max-attempts times. Retries
+     * only happen when this call owns the transaction; inside a caller's transaction the
+     * conflict is left to the caller.
+     * 
      * @param stepId Approval step ID
      * @param decision Approval decision (APPROVED or REJECTED)
      * @param comments Optional comments
      * @param approverId ID of the approver making the decision
      * @return Updated approval step
      */
-    @Transactional
     public ApprovalStep processApproval(Long stepId, ApprovalDecision decision, 
                                        String comments, Long approverId) {
+        ApprovalStep step = singleDecisionTimer.record(
+                () -> withRetry(() -> decide(stepId, decision, comments, approverId)));
+        countDecisions(decision, 1);
+        return step;
+    }
+    
+    /**
+     * Process many decisions by one approver in a single transaction.
+     * Steps are loaded with their expenses in one query; items that fail validation are
+     * reported and skipped, the rest are applied. Each affected expense is resolved once
+     * from its counters, step and expense updates are written as JDBC batches, and the
+     * rollup deltas are netted per bucket. Conflicts are retried as in {@link #processApproval}.
+     * 
+     * @param items Decisions to apply, reported in the same order
+     * @param approverId ID of the approver making the decisions
+     * @return Per-item results
+     */
+    public BulkApprovalResponse processBulkApproval(List<BulkApprovalRequest.Item> items, Long approverId) {
+        BulkApprovalResponse response = bulkDecisionTimer.record(() -> withRetry(() -> decideAll(items, approverId)));
+        response.getResults().stream()
+                .filter(BulkApprovalResponse.ItemResult::isSuccess)
+                .collect(Collectors.groupingBy(BulkApprovalResponse.ItemResult::getDecision, Collectors.counting()))
+                .forEach((decision, count) -> countDecisions(ApprovalDecision.valueOf(decision), count));
+        return response;
+    }
+    
+    private void countDecisions(ApprovalDecision decision, long count) {
+        meterRegistry.counter("expense.approvals", "decision", decision.name()).increment(count);
+    }
+    
+    private ApprovalStep decide(Long stepId, ApprovalDecision decision, String comments, Long approverId) {
         ApprovalStep step = approvalStepRepository.findById(stepId)
-                .orElseThrow(() -> new RuntimeException("Approval step not found"));
+                .orElseThrow(() -> new RuntimeException(STEP_NOT_FOUND));
         
         // Verify approver
         if (!step.getApprover().getId().equals(approverId)) {
-            throw new RuntimeException("User is not authorized to approve this step");
+            throw new RuntimeException(NOT_AUTHORIZED);
         }
         
         // Check if already decided
         if (step.getDecision() != ApprovalDecision.PENDING) {
-            throw new RuntimeException("This approval step has already been processed");
+            throw new RuntimeException(ALREADY_PROCESSED);
         }
         
         // Update step
@@ -71,54 +169,162 @@ public class ApprovalService {
         step = approvalStepRepository.save(step);
         
         // Update expense status based on decision and workflow
-        updateExpenseStatus(step.getExpense());
+        updateExpenseStatus(step.getExpense(), decision);
         
         return step;
     }
     
-    /**
-     * Update expense status based on approval workflow state.
-     * - If any step is rejected, expense is rejected.
-     * - If all steps are approved, expense is approved.
-     * - Otherwise, remains pending.
-     */
-    private void updateExpenseStatus(Expense expense) {
-        List<ApprovalStep> steps = approvalStepRepository
-                .findByExpenseIdOrderBySequenceAsc(expense.getId());
+    private BulkApprovalResponse decideAll(List<BulkApprovalRequest.Item> items, Long approverId) {
+        List<Long> stepIds = items.stream().map(BulkApprovalRequest.Item::getStepId).distinct().toList();
+        Map<Long, ApprovalStep> steps = new HashMap<>();
+        for (ApprovalStep step : approvalStepRepository.findAllWithExpenseByIdIn(stepIds)) {
+            steps.put(step.getId(), step);
+        }
         
-        boolean allApproved = true;
-        boolean anyRejected = false;
+        BulkApprovalResponse response = new BulkApprovalResponse();
+        Map<Long, Expense> expenses = new LinkedHashMap<>();
+        Map<Long, ExpenseStatus> previousStatuses = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
         
-        for (ApprovalStep step : steps) {
-            if (step.getDecision() == ApprovalDecision.REJECTED) {
-                anyRejected = true;
-                break;
-            }
-            if (step.getDecision() != ApprovalDecision.APPROVED) {
-                allApproved = false;
+        for (BulkApprovalRequest.Item item : items) {
+            ApprovalStep step = steps.get(item.getStepId());
+            String error = seen.add(item.getStepId())
+                    ? validateBulkItem(step, item.getDecision(), approverId)
+                    : "Step appears more than once in the request";
+            if (error != null) {
+                response.getResults().add(new BulkApprovalResponse.ItemResult(
+                        item.getStepId(), null, false, null, error));
+                response.setFailed(response.getFailed() + 1);
+                continue;
             }
+            
+            step.setDecision(item.getDecision());
+            step.setComments(item.getComments());
+            step.setDecidedAt(now);
+            
+            // Steps of one expense share its managed instance, so counters accumulate in memory
+            Expense expense = step.getExpense();
+            previousStatuses.putIfAbsent(expense.getId(), expense.getStatus());
+            expenses.put(expense.getId(), expense);
+            applyDecision(expense, item.getDecision());
+            
+            response.getResults().add(new BulkApprovalResponse.ItemResult(
+                    step.getId(), expense.getId(), true, item.getDecision().name(), null));
+            response.setSucceeded(response.getSucceeded() + 1);
         }
         
-        if (anyRejected) {
-            expense.setStatus(ExpenseStatus.REJECTED);
-        } else if (allApproved) {
-            expense.setStatus(ExpenseStatus.APPROVED);
+        // Steps and expenses are managed, so they are flushed as batched updates on commit
+        expenses.values().stream()
+                .collect(Collectors.groupingBy(expense -> expense.getUser().getCompany().getId()))
+                .forEach((companyId, changed) ->
+                        expenseRollupService.recordStatusChanges(companyId, changed, previousStatuses));
+        
+        return response;
+    }
+    
+    private static String validateBulkItem(ApprovalStep step, ApprovalDecision decision, Long approverId) {
+        if (step == null) {
+            return STEP_NOT_FOUND;
+        }
+        if (!step.getApprover().getId().equals(approverId)) {
+            return NOT_AUTHORIZED;
         }
+        if (step.getDecision() != ApprovalDecision.PENDING) {
+            return ALREADY_PROCESSED;
+        }
+        if (decision == ApprovalDecision.PENDING) {
+            return "Decision must be APPROVED or REJECTED";
+        }
+        return null;
+    }
+    
+    /**
+     * Update expense status from its step counters after one step was decided, and
+     * apply a status change to the spend rollups in the same transaction.
+     */
+    private void updateExpenseStatus(Expense expense, ApprovalDecision decision) {
+        ExpenseStatus previousStatus = expense.getStatus();
+        applyDecision(expense, decision);
         
         expenseRepository.save(expense);
+        
+        if (expense.getStatus() != previousStatus) {
+            expenseRollupService.recordStatusChange(expense.getUser().getCompany().getId(), expense, previousStatus);
+        }
+    }
+    
+    /**
+     * Count one decided step on the expense and resolve its status from the counters.
+     * - A rejection rejects a pending expense.
+     * - An approval that brings approvedSteps up to totalSteps approves it.
+     * - Otherwise, it remains pending.
+     */
+    private static void applyDecision(Expense expense, ApprovalDecision decision) {
+        if (decision == ApprovalDecision.APPROVED) {
+            expense.setApprovedSteps(expense.getApprovedSteps() + 1);
+        }
+        
+        if (expense.getStatus() == ExpenseStatus.PENDING) {
+            if (decision == ApprovalDecision.REJECTED) {
+                expense.setStatus(ExpenseStatus.REJECTED);
+            } else if (expense.getApprovedSteps() >= expense.getTotalSteps()) {
+                expense.setStatus(ExpenseStatus.APPROVED);
+            }
+        }
+    }
+    
+    /**
+     * Run work in a transaction, retrying concurrency conflicts unless a caller's
+     * transaction is already active.
+     */
+    private <T> T withRetry(Supplier<T> work) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        boolean joined = TransactionSynchronizationManager.isActualTransactionActive();
+        
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (joined || attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Approval decision lost a concurrent update (attempt {}), retrying", attempt);
+                meterRegistry.counter("approval.decision.retries").increment();
+                backOff(attempt);
+            }
+        }
+    }
+    
+    /**
+     * Sleep a short, jittered interval so retrying racers do not collide again in lockstep.
+     */
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying approval decision", e);
+        }
     }
     
     /**
-     * Get all approval steps for an expense.
+     * Get all approval steps for an expense, with approvers and submitter loaded in the
+     * same statement.
      */
+    @Transactional(readOnly = true)
     public List<ApprovalStep> getApprovalStepsForExpense(Long expenseId) {
-        return approvalStepRepository.findByExpenseIdOrderBySequenceAsc(expenseId);
+        return approvalStepRepository.findWithApproverByExpenseId(expenseId);
     }
     
     /**
-     * Get pending approvals for a specific approver.
+     * Get one page of pending approvals for a specific approver, newest first.
+     * Rows are projected straight into responses, so a page costs one query.
      */
-    public List<ApprovalStep> getPendingApprovalsForUser(Long approverId) {
-        return approvalStepRepository.findPendingApprovalsByApproverId(approverId);
+    @Transactional(readOnly = true)
+    public CursorPage<ApprovalStepResponse> getPendingApprovalsForUser(Long approverId, PageCursor cursor, int limit) {
+        List<ApprovalStepResponse> rows = approvalStepRepository.findPendingInboxPage(
+                approverId, cursor.createdAt(), cursor.id(), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, step -> PageCursor.of(step.getCreatedAt(), step.getId()));
     }
 }
@@ -71,8 +71,8 @@ public class AuthService {
         user.setCompany(company);
         
         // First user of company is Admin
-        long userCount = userRepository.findByCompanyId(company.getId()).size();
-        user.setRole(userCount == 0 ? Role.ADMIN : Role.EMPLOYEE);
+        boolean firstUser = !userRepository.existsByCompanyId(company.getId());
+        user.setRole(firstUser ? Role.ADMIN : Role.EMPLOYEE);
         
         userRepository.save(user);
         
@@ -1,25 +1,44 @@
 package com.teaminfinity.expensemanagement.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teaminfinity.expensemanagement.util.CircuitBreaker;
+import com.teaminfinity.expensemanagement.util.CountryCatalog;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Service for fetching countries and currencies from external API.
- * Provides fallback mock data when external API is unavailable.
+ * Service for countries and their default currencies.
+ * 
+ * The catalog is loaded once at startup from a bundled snapshot and, when
+ * external APIs are enabled, refreshed periodically from the REST Countries
+ * API. Lookups never leave the JVM; a failed refresh keeps the current catalog.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CountryCurrencyService {
     
+    private static final String DEFAULT_CURRENCY = "USD";
+    
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    @Qualifier("countriesCircuitBreaker")
+    private final CircuitBreaker circuitBreaker;
     
     @Value("${api.external.enabled}")
     private boolean externalApiEnabled;
@@ -27,69 +46,95 @@ public class CountryCurrencyService {
     @Value("${api.countries.url}")
     private String countriesApiUrl;
     
+    @Value("${api.countries.snapshot:classpath:data/countries.json}")
+    private Resource countriesSnapshot;
+    
+    private volatile CountryCatalog catalog;
+    
+    @PostConstruct
+    void loadSnapshot() {
+        try (InputStream in = countriesSnapshot.getInputStream()) {
+            Map<String, String> countries = objectMapper.readValue(in, new TypeReference<Map<String, String>>() {});
+            catalog = CountryCatalog.of(countries);
+            log.info("Loaded {} countries from bundled snapshot", catalog.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read country snapshot " + countriesSnapshot, e);
+        }
+    }
+    
     /**
-     * Get all countries with their currencies.
-     * 
-     * @return Map of country name to currency code
+     * Refresh the catalog from the REST Countries API.
      */
-    public Map<String, String> getCountriesWithCurrencies() {
+    @Scheduled(initialDelayString = "${api.countries.refresh-initial-delay:PT1M}",
+               fixedDelayString = "${api.countries.refresh-interval:PT24H}")
+    public void refresh() {
         if (!externalApiEnabled) {
-            return getMockCountryCurrencyData();
+            return;
         }
         
         try {
-            // Call REST Countries API
-            List<?> countries = restTemplate.getForObject(countriesApiUrl, List.class);
-            
-            Map<String, String> result = new HashMap<>();
-            if (countries != null) {
-                for (Object countryObj : countries) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> country = (Map<String, Object>) countryObj;
-                    
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> name = (Map<String, Object>) country.get("name");
-                    String countryName = (String) name.get("common");
-                    
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> currencies = (Map<String, Object>) country.get("currencies");
-                    if (currencies != null && !currencies.isEmpty()) {
-                        String currencyCode = currencies.keySet().iterator().next();
-                        result.put(countryName, currencyCode);
-                    }
-                }
+            Map<String, String> countries = circuitBreaker.call(this::fetchCountries);
+            if (countries.isEmpty()) {
+                log.warn("REST Countries API returned no countries, keeping current catalog");
+                return;
             }
-            
-            return result;
+            catalog = CountryCatalog.of(countries);
+            log.info("Refreshed country catalog from external API ({} countries)", catalog.size());
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            log.warn("REST Countries API circuit is open, keeping current catalog");
         } catch (Exception e) {
-            log.error("Error fetching countries from external API, using mock data", e);
-            return getMockCountryCurrencyData();
+            log.error("Error fetching countries from external API, keeping current catalog", e);
         }
     }
     
     /**
-     * Get default currency for a specific country.
+     * Get the current country catalog.
      */
-    public String getDefaultCurrencyForCountry(String country) {
-        Map<String, String> countryCurrencies = getCountriesWithCurrencies();
-        return countryCurrencies.getOrDefault(country, "USD");
+    public CountryCatalog getCatalog() {
+        return catalog;
+    }
+    
+    /**
+     * Get all countries with their currencies.
+     * 
+     * @return Unmodifiable map of country name to currency code, sorted by name
+     */
+    public Map<String, String> getCountriesWithCurrencies() {
+        return catalog.getCurrenciesByCountry();
     }
     
     /**
-     * Mock data for offline/fallback mode.
+     * Get default currency for a specific country (case-insensitive).
+     * Falls back to USD for unknown countries.
      */
-    private Map<String, String> getMockCountryCurrencyData() {
-        Map<String, String> mockData = new HashMap<>();
-        mockData.put("United States", "USD");
-        mockData.put("United Kingdom", "GBP");
-        mockData.put("India", "INR");
-        mockData.put("Canada", "CAD");
-        mockData.put("Australia", "AUD");
-        mockData.put("Germany", "EUR");
-        mockData.put("France", "EUR");
-        mockData.put("Japan", "JPY");
-        mockData.put("China", "CNY");
-        mockData.put("Brazil", "BRL");
-        return mockData;
+    public String getDefaultCurrencyForCountry(String country) {
+        String currency = catalog.currencyFor(country);
+        return currency != null ? currency : DEFAULT_CURRENCY;
+    }
+    
+    private Map<String, String> fetchCountries() {
+        // Call REST Countries API
+        List<?> countries = restTemplate.getForObject(countriesApiUrl, List.class);
+        
+        Map<String, String> result = new HashMap<>();
+        if (countries != null) {
+            for (Object countryObj : countries) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> country = (Map<String, Object>) countryObj;
+                
+                @SuppressWarnings("unchecked")
+                Map<String, Object> name = (Map<String, Object>) country.get("name");
+                String countryName = (String) name.get("common");
+                
+                @SuppressWarnings("unchecked")
+                Map<String, Object> currencies = (Map<String, Object>) country.get("currencies");
+                if (currencies != null && !currencies.isEmpty()) {
+                    String currencyCode = currencies.keySet().iterator().next();
+                    result.put(countryName, currencyCode);
+                }
+            }
+        }
+        
+        return result;
     }
 }
@@ -1,25 +1,63 @@
 package com.teaminfinity.expensemanagement.service;
 
+import com.teaminfinity.expensemanagement.util.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Currency;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * Service for fetching currency exchange rates from external API.
  * Provides fallback mock data when external API is unavailable.
+ * 
+ * Rates are cached per base currency. Within the TTL they are served from
+ * memory; within the stale window after that they are still served while a
+ * background refresh runs. Concurrent misses for the same base currency share
+ * a single outbound request. Outbound requests go through a circuit breaker; while
+ * it is open, misses are answered from the fallback without calling the provider.
+ * Only ISO 4217 codes are ever sent to the provider.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CurrencyRateService {
     
+    private static final Set<String> CURRENCY_CODES = Currency.getAvailableCurrencies().stream()
+            .map(Currency::getCurrencyCode)
+            .collect(Collectors.toUnmodifiableSet());
+    
     private final RestTemplate restTemplate;
+    @Qualifier("applicationTaskExecutor")
+    private final TaskExecutor taskExecutor;
+    @Qualifier("currencyRatesCircuitBreaker")
+    private final CircuitBreaker circuitBreaker;
+    
+    private final Map<String, CachedRates> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Map<String, BigDecimal>>> inFlight = new ConcurrentHashMap<>();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
     
     @Value("${api.external.enabled}")
     private boolean externalApiEnabled;
@@ -27,42 +65,166 @@ public class CurrencyRateService {
     @Value("${api.currency-rates.url}")
     private String currencyRatesApiUrl;
     
+    @Value("${currency.rates.cache-ttl:1h}")
+    private Duration cacheTtl;
+    
+    @Value("${currency.rates.stale-ttl:24h}")
+    private Duration staleTtl;
+    
     /**
      * Get exchange rates for a base currency.
      * 
      * @param baseCurrency Base currency code (e.g., "USD")
-     * @return Map of currency code to exchange rate
+     * @return Unmodifiable map of currency code to exchange rate
+     * @throws ResponseStatusException (400) if the base is not an ISO 4217 currency code
      */
     public Map<String, BigDecimal> getExchangeRates(String baseCurrency) {
+        if (!isCurrencyCode(baseCurrency)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown currency code: " + baseCurrency);
+        }
         if (!externalApiEnabled) {
             return getMockExchangeRates(baseCurrency);
         }
         
-        try {
-            // Call Exchange Rate API
-            String url = currencyRatesApiUrl + "/" + baseCurrency;
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            Map<String, BigDecimal> rates = new HashMap<>();
-            if (response != null && response.containsKey("rates")) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> ratesMap = (Map<String, Object>) response.get("rates");
-                
-                for (Map.Entry<String, Object> entry : ratesMap.entrySet()) {
-                    rates.put(entry.getKey(), new BigDecimal(entry.getValue().toString()));
-                }
+        CachedRates cached = cache.get(baseCurrency);
+        if (cached != null) {
+            Duration age = Duration.between(cached.fetchedAt(), Instant.now());
+            if (age.compareTo(cacheTtl) < 0) {
+                hits.increment();
+                return cached.rates();
+            }
+            if (age.compareTo(cacheTtl.plus(staleTtl)) < 0) {
+                staleHits.increment();
+                refreshInBackground(baseCurrency);
+                return cached.rates();
             }
-            
-            return rates;
+        }
+        
+        misses.increment();
+        return load(baseCurrency).join();
+    }
+    
+    /**
+     * Fetch current rates straight from the provider, without the cache or any fallback.
+     * Used where only real provider rates will do, such as persisted snapshots.
+     * 
+     * @param baseCurrency Base currency code (e.g., "USD")
+     * @return Provider rates, or empty if the base is not a currency code or the provider is
+     *         disabled, failing or short-circuited
+     */
+    public Optional<Map<String, BigDecimal>> fetchProviderRates(String baseCurrency) {
+        if (!isCurrencyCode(baseCurrency)) {
+            log.warn("Not fetching exchange rates for unknown currency code {}", baseCurrency);
+            return Optional.empty();
+        }
+        if (!externalApiEnabled) {
+            log.debug("External API disabled, no provider rates for {}", baseCurrency);
+            return Optional.empty();
+        }
+        
+        try {
+            Map<String, BigDecimal> rates = circuitBreaker.call(() -> fetchExchangeRates(baseCurrency));
+            cache.put(baseCurrency, new CachedRates(rates, Instant.now()));
+            return Optional.of(rates);
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            log.debug("Exchange rate provider circuit is open, no provider rates for {}", baseCurrency);
+            return Optional.empty();
         } catch (Exception e) {
-            log.error("Error fetching exchange rates from external API, using mock data", e);
-            return getMockExchangeRates(baseCurrency);
+            fetchFailures.increment();
+            log.warn("Error fetching exchange rates for {} from external API", baseCurrency, e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Whether the code is an ISO 4217 currency code (upper case, e.g. "USD").
+     */
+    public static boolean isCurrencyCode(String code) {
+        return code != null && CURRENCY_CODES.contains(code);
+    }
+    
+    /**
+     * Snapshot of the rate cache counters.
+     */
+    public CacheStats getCacheStats() {
+        return new CacheStats(hits.sum(), staleHits.sum(), misses.sum(), refreshes.sum(), fetchFailures.sum());
+    }
+    
+    /**
+     * Load rates for a base currency, joining an in-flight load if there is one.
+     * The returned future always completes normally: on failure it falls back to
+     * the last cached rates, or mock data if nothing was cached.
+     */
+    private CompletableFuture<Map<String, BigDecimal>> load(String baseCurrency) {
+        CompletableFuture<Map<String, BigDecimal>> created = new CompletableFuture<>();
+        CompletableFuture<Map<String, BigDecimal>> existing = inFlight.putIfAbsent(baseCurrency, created);
+        if (existing != null) {
+            return existing;
+        }
+        
+        try {
+            Map<String, BigDecimal> rates = circuitBreaker.call(() -> fetchExchangeRates(baseCurrency));
+            cache.put(baseCurrency, new CachedRates(rates, Instant.now()));
+            created.complete(rates);
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            log.debug("Exchange rate provider circuit is open, serving fallback rates for {}", baseCurrency);
+            created.complete(fallbackRates(baseCurrency));
+        } catch (Exception e) {
+            fetchFailures.increment();
+            CachedRates stale = cache.get(baseCurrency);
+            if (stale != null) {
+                log.warn("Error fetching exchange rates for {}, keeping rates from {}",
+                        baseCurrency, stale.fetchedAt(), e);
+            } else {
+                log.error("Error fetching exchange rates from external API, using mock data", e);
+            }
+            created.complete(fallbackRates(baseCurrency));
+        } finally {
+            inFlight.remove(baseCurrency, created);
+        }
+        return created;
+    }
+    
+    private void refreshInBackground(String baseCurrency) {
+        if (inFlight.containsKey(baseCurrency)) {
+            return;
+        }
+        refreshes.increment();
+        try {
+            taskExecutor.execute(() -> load(baseCurrency));
+        } catch (RuntimeException e) {
+            log.warn("Could not schedule exchange rate refresh for {}", baseCurrency, e);
         }
     }
     
+    /**
+     * Last cached rates for the base currency, or mock data if nothing was cached.
+     */
+    private Map<String, BigDecimal> fallbackRates(String baseCurrency) {
+        CachedRates stale = cache.get(baseCurrency);
+        return stale != null ? stale.rates() : getMockExchangeRates(baseCurrency);
+    }
+    
+    private Map<String, BigDecimal> fetchExchangeRates(String baseCurrency) {
+        // Call Exchange Rate API (a URI template keeps the base currency out of the client metrics' uri tag)
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = restTemplate.getForObject(currencyRatesApiUrl + "/{base}", Map.class, baseCurrency);
+        
+        if (response == null || !(response.get("rates") instanceof Map<?, ?> ratesMap) || ratesMap.isEmpty()) {
+            throw new IllegalStateException("Exchange rate response for " + baseCurrency + " has no rates");
+        }
+        
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (Map.Entry<?, ?> entry : ratesMap.entrySet()) {
+            rates.put(entry.getKey().toString(), new BigDecimal(entry.getValue().toString()));
+        }
+        return Map.copyOf(rates);
+    }
+    
     /**
      * Convert amount from one currency to another.
+     * 
+     * @throws ResponseStatusException (400) if fromCurrency is not an ISO 4217 currency code
      */
     public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency) {
         if (fromCurrency.equals(toCurrency)) {
@@ -76,7 +238,7 @@ public class CurrencyRateService {
     }
     
     /**
-     * Mock exchange rates for offline/fallback mode (base: USD).
+     * Mock exchange rates for offline/fallback mode (base: USD), unmodifiable like provider rates.
      */
     private Map<String, BigDecimal> getMockExchangeRates(String baseCurrency) {
         Map<String, BigDecimal> mockRates = new HashMap<>();
@@ -98,6 +260,15 @@ public class CurrencyRateService {
             mockRates.put("USD", BigDecimal.ONE);
         }
         
-        return mockRates;
+        return Map.copyOf(mockRates);
+    }
+    
+    private record CachedRates(Map<String, BigDecimal> rates, Instant fetchedAt) {
+    }
+    
+    /**
+     * Rate cache counters since startup.
+     */
+    public record CacheStats(long hits, long staleHits, long misses, long refreshes, long fetchFailures) {
     }
 }
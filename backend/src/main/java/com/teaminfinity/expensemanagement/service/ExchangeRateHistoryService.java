@@ -0,0 +1,166 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.entity.CurrencyRate;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.repository.CurrencyRateRepository;
+import com.teaminfinity.expensemanagement.util.RateHistory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Historical exchange rates: persists a daily snapshot of the provider's rates
+ * and converts amounts at the rate in effect on a given date.
+ * 
+ * All snapshots are held in memory as a {@link RateHistory} loaded at startup,
+ * so conversions never hit the database or the rate provider. Cross rates are
+ * derived through the snapshot base currency.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExchangeRateHistoryService {
+    
+    private final CurrencyRateRepository currencyRateRepository;
+    private final CurrencyRateService currencyRateService;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${currency.rates.snapshot-base:USD}")
+    private String snapshotBase;
+    
+    @Value("${currency.rates.snapshot-on-startup:true}")
+    private boolean snapshotOnStartup;
+    
+    private volatile RateHistory history;
+    
+    /**
+     * Load all persisted snapshots and take today's snapshot if it is missing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reload();
+        if (snapshotOnStartup) {
+            snapshotTodayIfMissing();
+        }
+    }
+    
+    /**
+     * Daily snapshot of the provider's rates for the snapshot base currency.
+     */
+    @Scheduled(cron = "${currency.rates.snapshot-cron:0 15 0 * * *}")
+    public void snapshotDaily() {
+        try {
+            takeSnapshot(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Scheduled exchange rate snapshot failed", e);
+        }
+    }
+    
+    /**
+     * Retry today's snapshot if it is still missing, e.g. because the provider was
+     * down or short-circuited when the daily snapshot ran.
+     */
+    @Scheduled(fixedDelayString = "${currency.rates.snapshot-retry-interval:1h}",
+               initialDelayString = "${currency.rates.snapshot-retry-interval:1h}")
+    public void snapshotTodayIfMissing() {
+        if (LocalDate.now().equals(currentHistory().getLatestDate())) {
+            return;
+        }
+        try {
+            takeSnapshot(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.warn("Exchange rate snapshot retry failed", e);
+        }
+    }
+    
+    /**
+     * Rebuild the in-memory history from the database.
+     */
+    public void reload() {
+        List<CurrencyRate> rows = currencyRateRepository.findByBaseCurrencyOrderByRateDateAsc(snapshotBase);
+        history = RateHistory.of(snapshotBase, rows);
+        log.info("Loaded {} exchange rate snapshot rows for base {} (latest: {})",
+                rows.size(), snapshotBase, history.getLatestDate());
+    }
+    
+    /**
+     * Fetch current rates from the provider and store them as the snapshot for the
+     * given day, replacing any existing snapshot for that day.
+     * 
+     * Only real provider rates are stored: when the provider is disabled, failing or
+     * short-circuited nothing is written (mock or cached rates would become history)
+     * and the snapshot is left to {@link #snapshotTodayIfMissing}.
+     * 
+     * @return Whether a snapshot was stored
+     */
+    public boolean takeSnapshot(LocalDate date) {
+        Optional<Map<String, BigDecimal>> providerRates = currencyRateService.fetchProviderRates(snapshotBase);
+        if (providerRates.isEmpty()) {
+            log.info("Skipped exchange rate snapshot for {}: no provider rates for base {}, will retry",
+                    date, snapshotBase);
+            return false;
+        }
+        Map<String, BigDecimal> rates = providerRates.get();
+        LocalDateTime fetchedAt = LocalDateTime.now();
+        
+        List<CurrencyRate> rows = new ArrayList<>(rates.size());
+        rates.forEach((currency, rate) ->
+                rows.add(new CurrencyRate(null, date, snapshotBase, currency, rate, fetchedAt)));
+        
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            currencyRateRepository.deleteSnapshot(snapshotBase, date);
+            currencyRateRepository.saveAll(rows);
+        });
+        
+        history = currentHistory().withSnapshot(date, rates);
+        log.info("Stored exchange rate snapshot for {} ({} currencies, base {})", date, rows.size(), snapshotBase);
+        return true;
+    }
+    
+    /**
+     * Convert an amount at the rates in effect on a date.
+     * Falls back to current rates if either currency has never been snapshotted.
+     */
+    public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency, LocalDate date) {
+        if (fromCurrency.equals(toCurrency)) {
+            return amount;
+        }
+        
+        RateHistory current = currentHistory();
+        BigDecimal fromRate = current.rateOn(fromCurrency, date);
+        BigDecimal toRate = current.rateOn(toCurrency, date);
+        if (fromRate == null || toRate == null || fromRate.signum() == 0) {
+            log.debug("No rate history for {}->{}, using current rates", fromCurrency, toCurrency);
+            return currencyRateService.convertCurrency(amount, fromCurrency, toCurrency);
+        }
+        
+        return amount.multiply(toRate).divide(fromRate, MathContext.DECIMAL64);
+    }
+    
+    /**
+     * Convert an expense's amount at the rates in effect on its expense date.
+     */
+    public BigDecimal convertExpense(Expense expense, String toCurrency) {
+        return convert(expense.getAmount(), expense.getCurrency(), toCurrency, expense.getExpenseDate());
+    }
+    
+    private RateHistory currentHistory() {
+        RateHistory current = history;
+        return current != null ? current : RateHistory.empty(snapshotBase);
+    }
+}
@@ -0,0 +1,77 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.enums.ExportFormat;
+import com.teaminfinity.expensemanagement.repository.ExpenseRepository;
+import com.teaminfinity.expensemanagement.util.ExpenseExportWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service for streaming expense exports (e.g. month-end finance exports).
+ *
+ * Rows come from a forward-only database cursor and are written straight to
+ * the response stream; each entity is detached once written, so memory use
+ * does not grow with the size of the export.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseExportService {
+
+    private final ExpenseRepository expenseRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${expense.export.flush-every:1000}")
+    private int flushEvery;
+
+    /**
+     * Write a company's expenses matching the filters to the output stream.
+     *
+     * @param companyId Company to export
+     * @param fromDate Earliest expense date, inclusive (optional)
+     * @param toDate Latest expense date, inclusive (optional)
+     * @param status Expense status (optional)
+     * @param category Expense category (optional)
+     * @param format Output format
+     * @param out Destination stream; flushed every N rows but not closed
+     * @return Number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportExpenses(Long companyId, LocalDate fromDate, LocalDate toDate,
+                               ExpenseStatus status, String category,
+                               ExportFormat format, OutputStream out) throws IOException {
+        long rows = 0;
+        try (Stream<Expense> expenses = expenseRepository.streamForExport(companyId, fromDate, toDate, status, category);
+             ExpenseExportWriter writer = format == ExportFormat.NDJSON
+                     ? ExpenseExportWriter.ndjson(out, objectMapper)
+                     : ExpenseExportWriter.csv(out)) {
+            Iterator<Expense> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                Expense expense = iterator.next();
+                writer.write(expense);
+                entityManager.detach(expense);
+                
+                if (++rows % flushEvery == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        
+        log.info("Exported {} expenses for company {} as {}", rows, companyId, format);
+        return rows;
+    }
+}
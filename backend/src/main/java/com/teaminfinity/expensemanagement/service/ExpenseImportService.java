@@ -0,0 +1,308 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseImportResponse;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseImportRow;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.repository.UserRepository;
+import com.teaminfinity.expensemanagement.util.ApprovalEvaluator;
+import com.teaminfinity.expensemanagement.util.CompiledRuleSet;
+import com.teaminfinity.expensemanagement.util.ExpenseImportReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service for bulk importing expenses (e.g. when onboarding a subsidiary).
+ *
+ * Rows are streamed from the reader, evaluated against the company's compiled
+ * approval rules (see {@link ApprovalRuleCache}) and written with JDBC batch inserts in chunked
+ * transactions. A failing chunk is rolled back and reported row by row without
+ * aborting the rest of the import.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_EXPENSE_SQL =
+            "INSERT INTO expenses (user_id, amount, currency, category, description, expense_date, " +
+            "receipt_image_url, status, total_steps, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_APPROVAL_STEP_SQL =
+            "INSERT INTO approval_steps (expense_id, approver_id, sequence, decision, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final ApprovalRuleCache approvalRuleCache;
+    private final ApprovalEvaluator approvalEvaluator;
+    private final ExpenseRollupService expenseRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${expense.import.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Import all rows from the reader into the given company.
+     *
+     * @param companyId Company the expenses belong to; every row's user must be a member
+     * @param reader Streaming row reader (CSV or NDJSON)
+     * @return Import summary with per-row errors
+     */
+    public ExpenseImportResponse importExpenses(Long companyId, ExpenseImportReader reader) throws IOException {
+        // Users and rules are read up front in a short read-only transaction; rows are then
+        // streamed with no connection held, and each chunk is written in its own transaction
+        // so progress is durable. An import therefore holds at most one pooled connection,
+        // and only while a chunk is being written.
+        TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        ImportContext context = readTemplate.execute(status -> loadContext(companyId));
+
+        TransactionTemplate chunkTemplate = new TransactionTemplate(transactionManager);
+        chunkTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        return runImport(companyId, context, reader, chunkTemplate);
+    }
+
+    private ImportContext loadContext(Long companyId) {
+        Map<String, ImportUser> usersByEmail = new HashMap<>();
+        for (AppUser user : userRepository.findByCompanyId(companyId)) {
+            Long managerId = user.getManager() != null ? user.getManager().getId() : null;
+            usersByEmail.put(user.getEmail().toLowerCase(Locale.ROOT), new ImportUser(user.getId(), managerId));
+        }
+        return new ImportContext(approvalRuleCache.getRuleSet(companyId), usersByEmail);
+    }
+
+    private ExpenseImportResponse runImport(Long companyId, ImportContext context, ExpenseImportReader reader,
+                                            TransactionTemplate chunkTemplate) throws IOException {
+        ExpenseImportResponse response = new ExpenseImportResponse();
+        List<ImportedRow> chunk = new ArrayList<>(chunkSize);
+
+        while (true) {
+            ExpenseImportRow row;
+            try {
+                row = reader.next();
+            } catch (IllegalArgumentException e) {
+                response.setTotalRows(response.getTotalRows() + 1);
+                recordError(response, reader.getRowLine(), e.getMessage());
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+            response.setTotalRows(response.getTotalRows() + 1);
+            long line = reader.getRowLine();
+
+            String error = validate(row);
+            if (error != null) {
+                recordError(response, line, error);
+                continue;
+            }
+
+            ImportUser user = context.usersByEmail().get(row.getUserEmail().toLowerCase(Locale.ROOT));
+            if (user == null) {
+                recordError(response, line, "Unknown user: " + row.getUserEmail());
+                continue;
+            }
+
+            ExpenseStatus status = row.getStatus() != null ? row.getStatus() : ExpenseStatus.PENDING;
+            List<Long> approverIds = List.of();
+            if (status == ExpenseStatus.PENDING) {
+                approverIds = approvalEvaluator.determineApproverIds(context.ruleSet(), row.getAmount(), user.managerId());
+            }
+
+            chunk.add(new ImportedRow(line, user.id(), status, row, approverIds));
+            if (chunk.size() >= chunkSize) {
+                flushChunk(companyId, chunk, chunkTemplate, response);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            flushChunk(companyId, chunk, chunkTemplate, response);
+        }
+
+        log.info("Expense import for company {}: {} rows, {} imported, {} failed",
+                companyId, response.getTotalRows(), response.getImportedRows(), response.getFailedRows());
+        return response;
+    }
+
+    private void flushChunk(Long companyId, List<ImportedRow> chunk, TransactionTemplate chunkTemplate,
+                            ExpenseImportResponse response) {
+        try {
+            int steps = chunkTemplate.execute(status -> writeChunk(companyId, chunk));
+            response.setImportedRows(response.getImportedRows() + chunk.size());
+            response.setApprovalStepsCreated(response.getApprovalStepsCreated() + steps);
+        } catch (RuntimeException e) {
+            log.warn("Expense import chunk of {} rows failed", chunk.size(), e);
+            String message = "Chunk rolled back: " + e.getMessage();
+            for (ImportedRow row : chunk) {
+                recordError(response, row.line(), message);
+            }
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Insert a chunk of expenses and their approval steps as two JDBC batches,
+     * then add the chunk's totals to the spend rollups (one delta per bucket).
+     *
+     * @return Number of approval steps created
+     */
+    private int writeChunk(Long companyId, List<ImportedRow> chunk) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_EXPENSE_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ImportedRow imported = chunk.get(i);
+                        ExpenseImportRow row = imported.row();
+                        ps.setLong(1, imported.userId());
+                        ps.setBigDecimal(2, row.getAmount());
+                        ps.setString(3, row.getCurrency());
+                        ps.setString(4, row.getCategory());
+                        setNullableString(ps, 5, row.getDescription());
+                        ps.setObject(6, row.getExpenseDate());
+                        setNullableString(ps, 7, row.getReceiptImageUrl());
+                        ps.setString(8, imported.status().name());
+                        ps.setInt(9, imported.approverIds().size());
+                        ps.setTimestamp(10, now);
+                        ps.setTimestamp(11, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != chunk.size()) {
+            throw new IllegalStateException("Expected " + chunk.size() + " generated keys but got " + keys.size());
+        }
+
+        List<Object[]> stepArgs = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            long expenseId = generatedId(keys.get(i));
+            List<Long> approverIds = chunk.get(i).approverIds();
+            for (int seq = 0; seq < approverIds.size(); seq++) {
+                stepArgs.add(new Object[]{
+                        expenseId, approverIds.get(seq), seq + 1, ApprovalDecision.PENDING.name(), now
+                });
+            }
+        }
+
+        if (!stepArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_APPROVAL_STEP_SQL, stepArgs);
+        }
+
+        Map<ExpenseRollupService.BucketKey, ExpenseRollupService.Delta> deltas = new HashMap<>();
+        for (ImportedRow imported : chunk) {
+            ExpenseImportRow row = imported.row();
+            deltas.merge(ExpenseRollupService.BucketKey.of(row.getExpenseDate(), row.getCategory(),
+                            imported.status(), row.getCurrency()),
+                    new ExpenseRollupService.Delta(row.getAmount(), 1), ExpenseRollupService.Delta::plus);
+        }
+        expenseRollupService.recordImported(companyId, deltas);
+
+        return stepArgs.size();
+    }
+
+    /**
+     * The id column from a row of generated keys. Drivers may return more columns than
+     * requested (PostgreSQL returns the whole row) and differ in the column name's case.
+     */
+    private static long generatedId(Map<String, Object> keys) {
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            if ("id".equalsIgnoreCase(key.getKey())) {
+                return ((Number) key.getValue()).longValue();
+            }
+        }
+        throw new IllegalStateException("No id among generated keys " + keys.keySet());
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    private static String validate(ExpenseImportRow row) {
+        if (row.getUserEmail() == null || row.getUserEmail().isBlank()) {
+            return "User email is required";
+        }
+        if (row.getAmount() == null) {
+            return "Amount is required";
+        }
+        if (row.getAmount().signum() <= 0) {
+            return "Amount must be positive";
+        }
+        if (row.getCurrency() == null || row.getCurrency().isBlank()) {
+            return "Currency is required";
+        }
+        if (row.getCategory() == null || row.getCategory().isBlank()) {
+            return "Category is required";
+        }
+        if (row.getExpenseDate() == null) {
+            return "Expense date is required";
+        }
+        return null;
+    }
+
+    private static void recordError(ExpenseImportResponse response, long line, String message) {
+        response.setFailedRows(response.getFailedRows() + 1);
+        if (response.getErrors().size() < MAX_REPORTED_ERRORS) {
+            response.getErrors().add(new ExpenseImportResponse.RowError(line, message));
+        } else {
+            response.setErrorsTruncated(true);
+        }
+    }
+
+    /**
+     * Company data an import needs, loaded before any rows are read.
+     */
+    private record ImportContext(CompiledRuleSet ruleSet, Map<String, ImportUser> usersByEmail) {
+    }
+
+    /**
+     * The fields of a company member needed to import their rows.
+     */
+    private record ImportUser(Long id, Long managerId) {
+    }
+
+    /**
+     * A validated row waiting to be written, with its approvers already resolved.
+     */
+    private record ImportedRow(long line, Long userId, ExpenseStatus status,
+                               ExpenseImportRow row, List<Long> approverIds) {
+    }
+}
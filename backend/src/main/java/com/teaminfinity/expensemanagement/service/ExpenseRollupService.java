@@ -0,0 +1,238 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.dto.report.RollupRebuildResponse;
+import com.teaminfinity.expensemanagement.dto.report.SpendSummaryResponse;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.entity.ExpenseRollup;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.repository.CompanyRepository;
+import com.teaminfinity.expensemanagement.repository.ExpenseRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maintains the expense_rollups spend totals and serves dashboard summaries from them.
+ * 
+ * Deltas are applied in the caller's transaction, so a bucket is always consistent
+ * with the expenses it counts. Summaries read only the rollups, so their cost grows
+ * with the number of buckets, not the number of expenses.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseRollupService {
+    
+    private final ExpenseRollupRepository rollupRepository;
+    private final CompanyRepository companyRepository;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    
+    /**
+     * Count a newly created expense in its bucket.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Long companyId, Expense expense) {
+        apply(companyId, BucketKey.of(expense, expense.getStatus()), expense.getAmount(), 1);
+    }
+    
+    /**
+     * Move an expense from the bucket of its previous status to the bucket of its current status.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Long companyId, Expense expense, ExpenseStatus previousStatus) {
+        if (previousStatus == expense.getStatus()) {
+            return;
+        }
+        apply(companyId, BucketKey.of(expense, previousStatus), expense.getAmount().negate(), -1);
+        apply(companyId, BucketKey.of(expense, expense.getStatus()), expense.getAmount(), 1);
+    }
+    
+    /**
+     * Move several expenses between status buckets (e.g. one bulk approval). Deltas are
+     * netted per bucket first, so each affected bucket is written once.
+     * 
+     * @param previousStatuses Status of each expense before the change, by expense ID
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanges(Long companyId, Collection<Expense> expenses,
+                                    Map<Long, ExpenseStatus> previousStatuses) {
+        Map<BucketKey, Delta> deltas = new HashMap<>();
+        for (Expense expense : expenses) {
+            ExpenseStatus previousStatus = previousStatuses.get(expense.getId());
+            if (previousStatus == expense.getStatus()) {
+                continue;
+            }
+            deltas.merge(BucketKey.of(expense, previousStatus),
+                    new Delta(expense.getAmount().negate(), -1), Delta::plus);
+            deltas.merge(BucketKey.of(expense, expense.getStatus()),
+                    new Delta(expense.getAmount(), 1), Delta::plus);
+        }
+        deltas.forEach((key, delta) -> {
+            if (delta.count() != 0 || delta.amount().signum() != 0) {
+                apply(companyId, key, delta.amount(), delta.count());
+            }
+        });
+    }
+    
+    /**
+     * Add pre-aggregated deltas (e.g. one import chunk) to their buckets.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordImported(Long companyId, Map<BucketKey, Delta> deltas) {
+        deltas.forEach((key, delta) -> apply(companyId, key, delta.amount(), delta.count()));
+    }
+    
+    /**
+     * Get spend totals for a company. Null filters are ignored.
+     * 
+     * The buckets are also added up in a report currency using the rate history. Buckets
+     * are monthly, so each is converted at the rates in effect on the last day of its
+     * month (today for the current month) rather than per expense.
+     * 
+     * @param reportCurrency Currency of the converted total, or null for the company's
+     *                       default currency (no converted total if that is not a valid code)
+     * @throws ResponseStatusException 400 if reportCurrency is not an ISO 4217 code
+     */
+    @Transactional(readOnly = true)
+    public SpendSummaryResponse getSummary(Long companyId, YearMonth from, YearMonth to,
+                                           ExpenseStatus status, String currency, String reportCurrency) {
+        if (reportCurrency == null) {
+            reportCurrency = companyRepository.findById(companyId).map(Company::getDefaultCurrency)
+                    .filter(CurrencyRateService::isCurrencyCode).orElse(null);
+        } else if (!CurrencyRateService.isCurrencyCode(reportCurrency)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown currency code: " + reportCurrency);
+        }
+        
+        SpendSummaryResponse response = new SpendSummaryResponse();
+        response.setReportCurrency(reportCurrency);
+        if (reportCurrency != null) {
+            response.setConvertedTotal(BigDecimal.ZERO);
+        }
+        LocalDate today = LocalDate.now();
+        for (ExpenseRollup rollup : rollupRepository.findSummary(companyId,
+                from != null ? from.atDay(1) : null, to != null ? to.atDay(1) : null, status, currency)) {
+            response.getBuckets().add(new SpendSummaryResponse.Bucket(
+                    YearMonth.from(rollup.getExpenseMonth()),
+                    rollup.getCategory(),
+                    rollup.getStatus().name(),
+                    rollup.getCurrency(),
+                    rollup.getTotalAmount(),
+                    rollup.getExpenseCount()));
+            response.getTotalsByCurrency().merge(rollup.getCurrency(), rollup.getTotalAmount(), BigDecimal::add);
+            response.setExpenseCount(response.getExpenseCount() + rollup.getExpenseCount());
+            
+            if (reportCurrency == null) {
+                continue;
+            }
+            if (!CurrencyRateService.isCurrencyCode(rollup.getCurrency())) {
+                response.getUnconvertedCurrencies().add(rollup.getCurrency());
+                continue;
+            }
+            LocalDate monthEnd = YearMonth.from(rollup.getExpenseMonth()).atEndOfMonth();
+            response.setConvertedTotal(response.getConvertedTotal().add(exchangeRateHistoryService.convert(
+                    rollup.getTotalAmount(), rollup.getCurrency(), reportCurrency,
+                    monthEnd.isAfter(today) ? today : monthEnd)));
+        }
+        return response;
+    }
+    
+    /**
+     * Recompute a company's rollups from its expenses and replace the stored buckets.
+     * Used to verify (and repair) the incremental totals; expenses written while the
+     * rebuild runs may be missed, so run it when the company is quiet.
+     */
+    @Transactional
+    public RollupRebuildResponse rebuild(Long companyId) {
+        Map<BucketKey, Delta> stored = new HashMap<>();
+        for (ExpenseRollup rollup : rollupRepository.findByCompanyId(companyId)) {
+            if (rollup.getExpenseCount() != 0 || rollup.getTotalAmount().signum() != 0) {
+                stored.put(new BucketKey(rollup.getExpenseMonth(), rollup.getCategory(), rollup.getStatus(),
+                        rollup.getCurrency()), new Delta(rollup.getTotalAmount(), rollup.getExpenseCount()));
+            }
+        }
+        
+        Map<BucketKey, Delta> recomputed = new HashMap<>();
+        long expenses = 0;
+        for (Object[] row : rollupRepository.aggregateExpenses(companyId)) {
+            BucketKey key = new BucketKey(LocalDate.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), 1),
+                    (String) row[2], (ExpenseStatus) row[3], (String) row[4]);
+            Delta delta = new Delta((BigDecimal) row[5], ((Number) row[6]).longValue());
+            recomputed.put(key, delta);
+            expenses += delta.count();
+        }
+        
+        long corrected = 0;
+        for (Map.Entry<BucketKey, Delta> entry : recomputed.entrySet()) {
+            if (!entry.getValue().sameAs(stored.get(entry.getKey()))) {
+                corrected++;
+            }
+        }
+        corrected += stored.keySet().stream().filter(key -> !recomputed.containsKey(key)).count();
+        
+        rollupRepository.deleteByCompanyId(companyId);
+        recomputed.forEach((key, delta) -> rollupRepository.insertBucket(companyId, key.month(), key.category(),
+                key.status().name(), key.currency(), delta.amount(), delta.count()));
+        
+        if (corrected > 0) {
+            log.warn("Rebuilt expense rollups for company {}: {} of {} buckets corrected",
+                    companyId, corrected, recomputed.size());
+        }
+        return new RollupRebuildResponse(recomputed.size(), expenses, corrected);
+    }
+    
+    /**
+     * Add a delta to a bucket: update in place, or create the bucket on first use. If a
+     * concurrent transaction creates it between the two statements, the insert is
+     * skipped and the update retried against its row.
+     */
+    private void apply(Long companyId, BucketKey key, BigDecimal amount, long count) {
+        String status = key.status().name();
+        if (rollupRepository.addToBucket(companyId, key.month(), key.category(), status, key.currency(), amount, count) > 0) {
+            return;
+        }
+        if (rollupRepository.insertBucket(companyId, key.month(), key.category(), status, key.currency(), amount, count) > 0) {
+            return;
+        }
+        rollupRepository.addToBucket(companyId, key.month(), key.category(), status, key.currency(), amount, count);
+    }
+    
+    /**
+     * Identifies a rollup bucket within a company.
+     */
+    public record BucketKey(LocalDate month, String category, ExpenseStatus status, String currency) {
+        
+        public static BucketKey of(LocalDate expenseDate, String category, ExpenseStatus status, String currency) {
+            return new BucketKey(expenseDate.withDayOfMonth(1), category, status, currency);
+        }
+        
+        public static BucketKey of(Expense expense, ExpenseStatus status) {
+            return of(expense.getExpenseDate(), expense.getCategory(), status, expense.getCurrency());
+        }
+    }
+    
+    /**
+     * Amount and expense count to add to a bucket.
+     */
+    public record Delta(BigDecimal amount, long count) {
+        
+        public Delta plus(Delta other) {
+            return new Delta(amount.add(other.amount), count + other.count);
+        }
+        
+        boolean sameAs(Delta other) {
+            return other != null && count == other.count && amount.compareTo(other.amount) == 0;
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.teaminfinity.expensemanagement.service;
 
-import com.teaminfinity.expensemanagement.entity.ApprovalStep;
+import com.teaminfinity.expensemanagement.config.MetricsConfig;
+import com.teaminfinity.expensemanagement.dto.common.CursorPage;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseSummaryResponse;
 import com.teaminfinity.expensemanagement.entity.AppUser;
-import com.teaminfinity.expensemanagement.entity.CompanyApprovalRule;
 import com.teaminfinity.expensemanagement.entity.Expense;
 import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
-import com.teaminfinity.expensemanagement.repository.CompanyApprovalRuleRepository;
 import com.teaminfinity.expensemanagement.repository.ExpenseRepository;
 import com.teaminfinity.expensemanagement.util.ApprovalEvaluator;
+import com.teaminfinity.expensemanagement.util.CompiledRuleSet;
+import com.teaminfinity.expensemanagement.util.PageCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,13 +31,31 @@ import java.util.List;
 public class ExpenseService {
     
     private final ExpenseRepository expenseRepository;
-    private final CompanyApprovalRuleRepository approvalRuleRepository;
+    private final ApprovalRuleCache approvalRuleCache;
     private final ApprovalService approvalService;
     private final ApprovalEvaluator approvalEvaluator;
+    private final ExpenseRollupService expenseRollupService;
+    private final ReceiptStorageService receiptStorageService;
+    private final MeterRegistry meterRegistry;
+    
+    private Timer submitTimer;
+    private Timer determineApproversTimer;
+    
+    @PostConstruct
+    void registerMeters() {
+        submitTimer = Timer.builder("expense.submit")
+                .description("Expense submission, up to the commit")
+                .register(meterRegistry);
+        determineApproversTimer = Timer.builder("approval.determine-approvers")
+                .description("Resolving the approver chain of a new expense from the compiled rules")
+                .register(meterRegistry);
+    }
     
     /**
      * Submit a new expense.
      * Automatically creates approval steps based on company rules.
+     * Successful submissions are timed (expense.submit) and counted per company and status
+     * (expense.submissions).
      * 
      * @param user User submitting the expense
      * @param amount Expense amount
@@ -39,12 +64,18 @@ public class ExpenseService {
      * @param description Description
      * @param expenseDate Date of expense
      * @param receiptImageUrl Receipt image URL (optional)
+     * @param receiptHash Hash of a receipt uploaded to the receipt store (optional)
      * @return Created expense
      */
     @Transactional
     public Expense submitExpense(AppUser user, BigDecimal amount, String currency,
                                 String category, String description, LocalDate expenseDate,
-                                String receiptImageUrl) {
+                                String receiptImageUrl, String receiptHash) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (receiptHash != null && !receiptStorageService.exists(receiptHash)) {
+            throw new RuntimeException("Receipt not found");
+        }
+        
         // Create expense
         Expense expense = new Expense();
         expense.setUser(user);
@@ -54,56 +85,94 @@ public class ExpenseService {
         expense.setDescription(description);
         expense.setExpenseDate(expenseDate);
         expense.setReceiptImageUrl(receiptImageUrl);
+        expense.setReceiptHash(receiptHash);
         expense.setStatus(ExpenseStatus.PENDING);
         
-        expense = expenseRepository.save(expense);
+        // Get compiled company approval rules (cached per company)
+        CompiledRuleSet ruleSet = approvalRuleCache.getRuleSet(user.getCompany().getId());
         
-        // Get company approval rules
-        List<CompanyApprovalRule> rules = approvalRuleRepository
-                .findByCompanyIdAndActiveOrderBySequenceAsc(user.getCompany().getId(), true);
+        // Determine approvers using ApprovalEvaluator; the step count is set before the
+        // save so it goes out with the insert instead of a follow-up update
+        Long managerId = user.getManager() != null ? user.getManager().getId() : null;
+        List<Long> approverIds = determineApproversTimer.record(
+                () -> approvalEvaluator.determineApproverIds(ruleSet, amount, managerId));
+        expense.setTotalSteps(approverIds.size());
         
-        // Determine approvers using ApprovalEvaluator
-        List<AppUser> approvers = approvalEvaluator.determineApprovers(
-                expense, 
-                rules, 
-                user.getManager(), 
-                user.getCompany().getIsManagerApprover()
-        );
+        expense = expenseRepository.save(expense);
         
-        // Create approval steps
-        for (int i = 0; i < approvers.size(); i++) {
-            approvalService.createApprovalStep(expense, approvers.get(i), i + 1);
-        }
+        // Create approval steps (batched with the expense insert on flush)
+        approvalService.createApprovalSteps(expense, approverIds);
         
+        // Count the expense in the company's spend rollups (last, to hold the bucket row lock briefly)
+        expenseRollupService.recordCreated(user.getCompany().getId(), expense);
+        
+        sample.stop(submitTimer);
+        meterRegistry.counter("expense.submissions",
+                MetricsConfig.COMPANY_TAG, user.getCompany().getId().toString(),
+                "status", expense.getStatus().name()).increment();
         return expense;
     }
     
     /**
-     * Get all expenses for a user.
+     * Get one page of expenses for a user, newest first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseResponse> getUserExpenses(Long userId, PageCursor cursor, int limit) {
+        List<ExpenseResponse> rows = expenseRepository.findResponsePageByUserId(
+                userId, cursor.createdAt(), cursor.id(), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, ExpenseService::cursorOf);
+    }
+    
+    /**
+     * Get one page of expenses by status for a user, newest first.
      */
-    public List<Expense> getUserExpenses(Long userId) {
-        return expenseRepository.findByUserId(userId);
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseResponse> getUserExpensesByStatus(Long userId, ExpenseStatus status, PageCursor cursor, int limit) {
+        List<ExpenseResponse> rows = expenseRepository.findResponsePageByUserIdAndStatus(
+                userId, status, cursor.createdAt(), cursor.id(), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, ExpenseService::cursorOf);
     }
     
     /**
-     * Get expenses by status for a user.
+     * Get a user's expense counts and amounts by status and by category, aggregated in
+     * one query instead of by reading every page of the user's expenses.
+     * Amounts are summed across currencies, as entered.
      */
-    public List<Expense> getUserExpensesByStatus(Long userId, ExpenseStatus status) {
-        return expenseRepository.findByUserIdAndStatus(userId, status);
+    @Transactional(readOnly = true)
+    public ExpenseSummaryResponse getUserExpenseSummary(Long userId) {
+        ExpenseSummaryResponse response = new ExpenseSummaryResponse();
+        for (Object[] row : expenseRepository.summarizeByUserId(userId)) {
+            String status = ((ExpenseStatus) row[0]).name();
+            long count = ((Number) row[2]).longValue();
+            BigDecimal amount = (BigDecimal) row[3];
+            response.setExpenseCount(response.getExpenseCount() + count);
+            response.getCountsByStatus().merge(status, count, Long::sum);
+            response.getAmountsByStatus().merge(status, amount, BigDecimal::add);
+            response.getAmountsByCategory().merge((String) row[1], amount, BigDecimal::add);
+        }
+        return response;
     }
     
     /**
      * Get expense by ID.
      */
+    @Transactional(readOnly = true)
     public Expense getExpenseById(Long id) {
         return expenseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
     }
     
     /**
-     * Get all pending expenses for a company (Admin/Manager view).
+     * Get one page of pending expenses for a company (Admin/Manager view), newest first.
      */
-    public List<Expense> getPendingExpensesByCompany(Long companyId) {
-        return expenseRepository.findByCompanyIdAndStatus(companyId, ExpenseStatus.PENDING);
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseResponse> getPendingExpensesByCompany(Long companyId, PageCursor cursor, int limit) {
+        List<ExpenseResponse> rows = expenseRepository.findResponsePageByCompanyIdAndStatus(
+                companyId, ExpenseStatus.PENDING, cursor.createdAt(), cursor.id(), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, ExpenseService::cursorOf);
+    }
+    
+    private static PageCursor cursorOf(ExpenseResponse expense) {
+        return PageCursor.of(expense.getCreatedAt(), expense.getId());
     }
 }
@@ -0,0 +1,296 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.enums.OcrJobStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs receipt OCR as background jobs so uploads never hold a request thread
+ * while a recognizer works.
+ * 
+ * Jobs wait in a bounded queue; when it is full, {@link #submit} refuses the job
+ * and the caller answers 429 (back-pressure instead of unbounded memory). Each job
+ * then runs in two stages: reading the upload happens on a virtual thread of its own,
+ * so blocking file I/O holds no pool thread, and recognition (CPU bound) is handed off
+ * to a pool of {@code ocr.jobs.workers} platform threads. At most
+ * {@code ocr.jobs.max-in-flight} jobs are taken off the queue at once, which bounds
+ * the images held in memory. Finished jobs are kept for {@code ocr.jobs.result-ttl}
+ * so clients can poll for the result.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OcrJobService {
+    
+    private final OcrService ocrService;
+    
+    @Value("${ocr.jobs.queue-capacity:50}")
+    private int queueCapacity;
+    
+    @Value("${ocr.jobs.workers:4}")
+    private int workerCount;
+    
+    @Value("${ocr.jobs.max-in-flight:8}")
+    private int maxInFlight;
+    
+    @Value("${ocr.jobs.result-ttl:10m}")
+    private Duration resultTtl;
+    
+    private final Map<String, OcrJob> jobs = new ConcurrentHashMap<>();
+    private BlockingQueue<OcrJob> queue;
+    private Semaphore inFlight;
+    private ExecutorService recognizers;
+    private Thread dispatcher;
+    private volatile boolean running;
+    
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder totalProcessingNanos = new LongAdder();
+    private final LongAccumulator maxProcessingNanos = new LongAccumulator(Math::max, 0);
+    
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        inFlight = new Semaphore(maxInFlight);
+        recognizers = Executors.newFixedThreadPool(workerCount,
+                Thread.ofPlatform().name("ocr-recognizer-", 1).daemon(true).factory());
+        running = true;
+        
+        dispatcher = Thread.ofVirtual().name("ocr-dispatcher").start(this::dispatchLoop);
+        log.info("Started OCR jobs with {} recognizer threads ({} jobs in flight, queue capacity {})",
+                workerCount, maxInFlight, queueCapacity);
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        recognizers.shutdownNow();
+        recognizers.awaitTermination(5, TimeUnit.SECONDS);
+        queue.forEach(OcrJob::discardImage);
+    }
+    
+    /**
+     * Queue a receipt image for recognition. The job takes ownership of the image file.
+     * 
+     * @param ownerId User who uploaded the receipt (only they can read the job)
+     * @param image   Temporary file holding the upload; deleted once the job is done
+     * @return The queued job, or empty if the queue is full (the image is deleted)
+     */
+    public Optional<OcrJob> submit(Long ownerId, Path image) {
+        OcrJob job = new OcrJob(UUID.randomUUID().toString(), ownerId, image);
+        jobs.put(job.getId(), job);
+        if (!queue.offer(job)) {
+            jobs.remove(job.getId());
+            job.discardImage();
+            rejected.increment();
+            return Optional.empty();
+        }
+        submitted.increment();
+        return Optional.of(job);
+    }
+    
+    /**
+     * Find a job by ID, visible only to the user who submitted it.
+     */
+    public Optional<OcrJob> getJob(String jobId, Long ownerId) {
+        return Optional.ofNullable(jobs.get(jobId)).filter(job -> Objects.equals(job.getOwnerId(), ownerId));
+    }
+    
+    /**
+     * Drop finished jobs whose results have been kept for longer than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${ocr.jobs.cleanup-interval:PT1M}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+    
+    public JobStats getStats() {
+        long finished = succeeded.sum() + failed.sum();
+        return new JobStats(queue.size(), queueCapacity, submitted.sum(), rejected.sum(), succeeded.sum(), failed.sum(),
+                finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / finished),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalProcessingNanos.sum() / finished),
+                TimeUnit.NANOSECONDS.toMillis(maxProcessingNanos.get()));
+    }
+    
+    /**
+     * Takes jobs off the queue as in-flight slots free up, starting each on a virtual thread.
+     * The slot is taken before the job, so jobs beyond the limit stay queued (and counted).
+     */
+    private void dispatchLoop() {
+        while (running) {
+            OcrJob job;
+            try {
+                inFlight.acquire();
+                job = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Thread.ofVirtual().name("ocr-io-" + job.getId()).start(() -> load(job));
+        }
+    }
+    
+    /**
+     * I/O stage: read the upload, then hand the bytes to the recognizer pool.
+     */
+    private void load(OcrJob job) {
+        long waitNanos = job.markRunning();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+        long start = System.nanoTime();
+        
+        byte[] image;
+        try {
+            image = Files.readAllBytes(job.image);
+        } catch (IOException e) {
+            finish(job, start, null, e);
+            return;
+        } finally {
+            job.discardImage();
+        }
+        
+        try {
+            recognizers.execute(() -> recognize(job, image, start));
+        } catch (RejectedExecutionException e) {
+            finish(job, start, null, e);
+        }
+    }
+    
+    /**
+     * CPU stage, on a recognizer thread.
+     */
+    private void recognize(OcrJob job, byte[] image, long start) {
+        try {
+            finish(job, start, ocrService.parseReceipt(image), null);
+        } catch (RuntimeException e) {
+            finish(job, start, null, e);
+        }
+    }
+    
+    private void finish(OcrJob job, long start, OcrService.OcrResult result, Exception failure) {
+        inFlight.release();
+        long processingNanos = System.nanoTime() - start;
+        totalProcessingNanos.add(processingNanos);
+        maxProcessingNanos.accumulate(processingNanos);
+        
+        // Counters are updated before completing, so anyone woken by the completion sees them
+        if (failure == null) {
+            succeeded.increment();
+            job.succeed(result);
+        } else {
+            log.warn("OCR job {} failed", job.getId(), failure);
+            failed.increment();
+            job.fail("Receipt could not be parsed");
+        }
+    }
+    
+    /**
+     * A queued or finished OCR job. State changes are published through
+     * {@link #getCompletion()}, which completes when the job succeeds or fails.
+     */
+    @Getter
+    public static class OcrJob {
+        private final String id;
+        private final Long ownerId;
+        private final Instant submittedAt = Instant.now();
+        private final CompletableFuture<OcrJob> completion = new CompletableFuture<>();
+        private volatile OcrJobStatus status = OcrJobStatus.QUEUED;
+        private volatile Instant finishedAt;
+        private volatile OcrService.OcrResult result;
+        private volatile String error;
+        
+        @Getter(AccessLevel.NONE)
+        private final long submittedNanos = System.nanoTime();
+        @Getter(AccessLevel.NONE)
+        private volatile Path image;
+        
+        OcrJob(String id, Long ownerId, Path image) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.image = image;
+        }
+        
+        public boolean isFinished() {
+            return completion.isDone();
+        }
+        
+        private long markRunning() {
+            status = OcrJobStatus.RUNNING;
+            return System.nanoTime() - submittedNanos;
+        }
+        
+        private void succeed(OcrService.OcrResult result) {
+            this.result = result;
+            finish(OcrJobStatus.SUCCEEDED);
+        }
+        
+        private void fail(String error) {
+            this.error = error;
+            finish(OcrJobStatus.FAILED);
+        }
+        
+        private void finish(OcrJobStatus status) {
+            this.finishedAt = Instant.now();
+            this.status = status;
+            completion.complete(this);
+        }
+        
+        private void discardImage() {
+            Path path = image;
+            image = null;
+            if (path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Could not delete OCR upload {}", path, e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Queue and timing counters since startup. Wait time is from submission until the
+     * job leaves the queue; processing time covers reading the upload and recognition.
+     */
+    public record JobStats(int queueDepth, int queueCapacity, long submitted, long rejected,
+                           long succeeded, long failed,
+                           long avgWaitMillis, long maxWaitMillis,
+                           long avgProcessingMillis, long maxProcessingMillis) {
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * OCR service stub for receipt parsing.
@@ -15,8 +16,6 @@ import java.util.Random;
 @Service
 public class OcrService {
     
-    private final Random random = new Random();
-    
     /**
      * Parse receipt image and extract fields.
      * 
@@ -24,8 +23,24 @@ public class OcrService {
      * @return Parsed receipt data
      */
     public OcrResult parseReceipt(MultipartFile receiptImage) {
+        return recognize();
+    }
+    
+    /**
+     * Parse a receipt image already read into memory (used by the OCR job recognizers).
+     * Called concurrently from the recognizer pool, so it must be thread-safe.
+     * 
+     * @param receiptImage Contents of the receipt image
+     * @return Parsed receipt data
+     */
+    public OcrResult parseReceipt(byte[] receiptImage) {
+        return recognize();
+    }
+    
+    private OcrResult recognize() {
         // Stub implementation - returns mock data
         // In production, integrate with OCR service (e.g., Azure Computer Vision, AWS Textract)
+        Random random = ThreadLocalRandom.current();
         
         OcrResult result = new OcrResult();
         result.setAmount(new BigDecimal("50.00").add(BigDecimal.valueOf(random.nextInt(950))));
@@ -38,11 +53,13 @@ public class OcrService {
     }
     
     private String getRandomVendor() {
+        Random random = ThreadLocalRandom.current();
         String[] vendors = {"Office Depot", "Starbucks", "Uber", "Amazon", "Hotel Marriott", "Delta Airlines"};
         return vendors[random.nextInt(vendors.length)];
     }
     
     private String getRandomCategory() {
+        Random random = ThreadLocalRandom.current();
         String[] categories = {"Office Supplies", "Meals", "Transportation", "Equipment", "Accommodation", "Travel"};
         return categories[random.nextInt(categories.length)];
     }
@@ -0,0 +1,173 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.repository.ReceiptRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed receipt store on the local filesystem.
+ * 
+ * Uploads are streamed through a fixed buffer into a temp file while their SHA-256
+ * is computed, then moved to {@code <root>/<h0h1>/<h2h3>/<hash>}. Identical files
+ * map to the same path, so a duplicate upload only costs the streaming pass.
+ * Stored files are immutable and never change under their hash.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReceiptStorageService {
+    
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final ReceiptRepository receiptRepository;
+    
+    @Value("${receipt.storage.root:./data/receipts}")
+    private Path root;
+    
+    @Value("${receipt.storage.max-size:10MB}")
+    private DataSize maxSize;
+    
+    private Path tempDir;
+    
+    @PostConstruct
+    void init() throws IOException {
+        root = root.toAbsolutePath().normalize();
+        tempDir = Files.createDirectories(root.resolve("tmp"));
+        log.info("Receipt store at {}", root);
+    }
+    
+    /**
+     * Stream an upload into the store and record it.
+     * 
+     * Not transactional: the upload is streamed without holding a database
+     * connection, and only the final insert runs in its own short transaction.
+     * 
+     * @param content     Upload body; read to the end but not closed
+     * @param contentType Media type declared by the client
+     * @return The stored receipt
+     * @throws ResponseStatusException (413) if the upload exceeds receipt.storage.max-size
+     */
+    public StoredReceipt store(InputStream content, String contentType) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = copy(Channels.newChannel(content), temp, digest);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            
+            Path target = pathFor(hash);
+            boolean duplicate = Files.exists(target);
+            if (!duplicate) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            receiptRepository.insertIfAbsent(hash, contentType, size);
+            return new StoredReceipt(hash, contentType, size, duplicate);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Locate a stored file.
+     * 
+     * @return The file, or empty if the hash is malformed or not stored
+     */
+    public Optional<Path> locate(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathFor(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+    
+    /**
+     * Whether a hash refers to a stored receipt (used to validate expense references).
+     */
+    public boolean exists(String hash) {
+        return locate(hash).isPresent() && receiptRepository.existsById(hash);
+    }
+    
+    /**
+     * Write a byte range of a stored file to an output stream. Uses
+     * {@link FileChannel#transferTo}, which lets the OS copy file pages directly
+     * where the target supports it.
+     */
+    public void transfer(Path file, long start, long length, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+    
+    private long copy(ReadableByteChannel source, Path temp, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long size = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxSize.toBytes()) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "Receipt exceeds " + maxSize.toMegabytes() + "MB");
+                }
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            out.force(false);
+        }
+        return size;
+    }
+    
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Result of storing an upload.
+     */
+    public record StoredReceipt(String hash, String contentType, long sizeBytes, boolean duplicate) {
+    }
+}
@@ -3,6 +3,7 @@ package com.teaminfinity.expensemanagement.service;
 import com.teaminfinity.expensemanagement.entity.AppUser;
 import com.teaminfinity.expensemanagement.enums.Role;
 import com.teaminfinity.expensemanagement.repository.UserRepository;
+import com.teaminfinity.expensemanagement.security.UserStatusCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,7 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatusCache userStatusCache;
     
     /**
      * Create a new user (Admin only operation).
@@ -57,9 +59,26 @@ public class UserService {
         return userRepository.save(user);
     }
     
+    /**
+     * Enable or disable a user in the given company (Admin only operation).
+     * Disabled users cannot log in, and their tokens stop working within the
+     * user-status cache TTL (immediately on this instance).
+     */
+    @Transactional
+    public AppUser setUserEnabled(Long companyId, Long userId, boolean enabled) {
+        AppUser user = userRepository.findById(userId)
+                .filter(u -> u.getCompany().getId().equals(companyId))
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        user.setEnabled(enabled);
+        userStatusCache.evict(userId);
+        return user;
+    }
+    
     /**
      * Get all users for a company.
      */
+    @Transactional(readOnly = true)
     public List<AppUser> getUsersByCompanyId(Long companyId) {
         return userRepository.findByCompanyId(companyId);
     }
@@ -67,6 +86,7 @@ public class UserService {
     /**
      * Get users by role.
      */
+    @Transactional(readOnly = true)
     public List<AppUser> getUsersByRole(Long companyId, Role role) {
         return userRepository.findByCompanyIdAndRole(companyId, role);
     }
@@ -74,6 +94,7 @@ public class UserService {
     /**
      * Get user by ID.
      */
+    @Transactional(readOnly = true)
     public AppUser getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -82,6 +103,7 @@ public class UserService {
     /**
      * Get user by email.
      */
+    @Transactional(readOnly = true)
     public AppUser getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
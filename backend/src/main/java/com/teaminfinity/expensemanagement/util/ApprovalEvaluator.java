@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -48,6 +49,88 @@ public class ApprovalEvaluator {
         return approvers;
     }
     
+    /**
+     * Compile a company's active rules into an immutable rule set.
+     * Thresholds are computed once here instead of on every evaluation, and
+     * approvers are reduced to their IDs (read from the foreign key, so lazy
+     * approver associations are not initialized).
+     * 
+     * @param companyId Company the rules belong to
+     * @param rules     Active approval rules for the company (ordered by sequence)
+     * @param isManagerApprover Whether the submitter's manager should be the first approver
+     * @return Compiled rule set
+     */
+    public CompiledRuleSet compile(Long companyId, List<CompanyApprovalRule> rules, boolean isManagerApprover) {
+        BigDecimal[] thresholds = new BigDecimal[rules.size()];
+        long[] approverIds = new long[rules.size()];
+        int count = 0;
+        
+        for (CompanyApprovalRule rule : rules) {
+            if (rule.getSpecificApprover() == null || rule.getRuleType() == null) {
+                continue;
+            }
+            
+            BigDecimal threshold;
+            switch (rule.getRuleType()) {
+                case PERCENTAGE:
+                    if (rule.getThresholdAmount() == null || rule.getThresholdPercentage() == null) {
+                        continue;
+                    }
+                    threshold = rule.getThresholdAmount()
+                            .multiply(rule.getThresholdPercentage())
+                            .divide(BigDecimal.valueOf(100));
+                    break;
+                case HYBRID:
+                    if (rule.getThresholdAmount() == null) {
+                        continue;
+                    }
+                    threshold = rule.getThresholdAmount();
+                    break;
+                case SPECIFIC_APPROVER:
+                    threshold = null;
+                    break;
+                default:
+                    continue;
+            }
+            
+            thresholds[count] = threshold;
+            approverIds[count] = rule.getSpecificApprover().getId();
+            count++;
+        }
+        
+        return new CompiledRuleSet(companyId, isManagerApprover,
+                Arrays.copyOf(thresholds, count), Arrays.copyOf(approverIds, count));
+    }
+    
+    /**
+     * Determine approver IDs for an expense amount using a compiled rule set.
+     * Same semantics as {@link #determineApprovers}, without entity access.
+     * 
+     * @param ruleSet   Compiled company rules
+     * @param amount    Expense amount
+     * @param managerId Submitter's manager ID (may be null)
+     * @return Ordered, de-duplicated list of approver IDs
+     */
+    public List<Long> determineApproverIds(CompiledRuleSet ruleSet, BigDecimal amount, Long managerId) {
+        List<Long> approverIds = new ArrayList<>(ruleSet.size() + 1);
+        
+        if (ruleSet.isManagerApprover() && managerId != null) {
+            approverIds.add(managerId);
+        }
+        
+        for (int i = 0; i < ruleSet.size(); i++) {
+            BigDecimal threshold = ruleSet.thresholdAt(i);
+            if (threshold == null || amount.compareTo(threshold) > 0) {
+                Long approverId = ruleSet.approverIdAt(i);
+                if (!approverIds.contains(approverId)) {
+                    approverIds.add(approverId);
+                }
+            }
+        }
+        
+        return approverIds;
+    }
+    
     /**
      * Evaluate a single approval rule against an expense.
      * 
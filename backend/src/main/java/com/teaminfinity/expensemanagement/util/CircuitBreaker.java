@@ -0,0 +1,163 @@
+package com.teaminfinity.expensemanagement.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Minimal in-process circuit breaker around calls to one external provider.
+ * 
+ * CLOSED: calls pass through; failureThreshold consecutive failures open the circuit.
+ * OPEN: calls are refused at once with {@link CircuitOpenException}, so callers go
+ * straight to their fallback, until openDuration has passed.
+ * HALF_OPEN: a single trial call is let through (others are still refused); its
+ * success closes the circuit, its failure opens it again.
+ * 
+ * Exceptions that do not pass the failure predicate (e.g. a 4xx for a bad request)
+ * show the provider is answering; they are rethrown but count as a success.
+ */
+@Slf4j
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    @Getter
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Predicate<RuntimeException> isFailure;
+    
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAtNanos;
+    
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this(name, failureThreshold, openDuration, e -> true);
+    }
+    
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration,
+                          Predicate<RuntimeException> isFailure) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.isFailure = isFailure;
+    }
+    
+    /**
+     * Run a call through the breaker. Runtime exceptions from the call are rethrown; those
+     * matching the failure predicate count as failures.
+     * 
+     * @throws CircuitOpenException if the circuit is open and the call was not attempted
+     */
+    public <T> T call(Supplier<T> call) {
+        acquirePermission();
+        
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            record(System.nanoTime() - start);
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            record(System.nanoTime() - start);
+            if (isFailure.test(e)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            throw e;
+        }
+    }
+    
+    public State getState() {
+        return state.get();
+    }
+    
+    public Stats getStats() {
+        long count = calls.sum();
+        return new Stats(state.get(), count, failures.sum(), rejected.sum(), opened.sum(),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.sum() / count),
+                TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+    }
+    
+    private void acquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return;
+        }
+        // Once the open period is over, the first caller to flip OPEN -> HALF_OPEN makes the trial call
+        if (current == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return;
+        }
+        rejected.increment();
+        throw new CircuitOpenException(name);
+    }
+    
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Circuit {} closed", name);
+        }
+    }
+    
+    private void onFailure() {
+        failures.increment();
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+    
+    private void open(State from) {
+        openedAtNanos = System.nanoTime();
+        if (state.compareAndSet(from, State.OPEN)) {
+            opened.increment();
+            consecutiveFailures.set(0);
+            log.warn("Circuit {} opened for {} ms", name, TimeUnit.NANOSECONDS.toMillis(openNanos));
+        }
+    }
+    
+    private void record(long latencyNanos) {
+        calls.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulate(latencyNanos);
+    }
+    
+    /**
+     * Thrown instead of making a call while the circuit is open.
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String name) {
+            super("Circuit " + name + " is open");
+        }
+    }
+    
+    /**
+     * State and counters since startup. Calls and latency cover attempted calls only;
+     * rejected counts the calls refused while open.
+     */
+    public record Stats(State state, long calls, long failures, long rejected, long opened,
+                        long avgLatencyMillis, long maxLatencyMillis) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.teaminfinity.expensemanagement.util;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Immutable, pre-evaluated form of a company's active approval rules.
+ * Built by {@link ApprovalEvaluator#compile} and evaluated by
+ * {@link ApprovalEvaluator#determineApproverIds} without touching the database.
+ *
+ * Each entry is a (threshold, approver) pair in rule sequence order; a null
+ * threshold means the rule always applies. Rules that can never yield an
+ * approver are dropped at compile time.
+ */
+public final class CompiledRuleSet {
+    
+    private final Long companyId;
+    private final boolean managerApprover;
+    private final BigDecimal[] thresholds;
+    private final long[] approverIds;
+    private final Instant compiledAt;
+    
+    CompiledRuleSet(Long companyId, boolean managerApprover, BigDecimal[] thresholds, long[] approverIds) {
+        this.companyId = companyId;
+        this.managerApprover = managerApprover;
+        this.thresholds = thresholds;
+        this.approverIds = approverIds;
+        this.compiledAt = Instant.now();
+    }
+    
+    public Long getCompanyId() {
+        return companyId;
+    }
+    
+    public boolean isManagerApprover() {
+        return managerApprover;
+    }
+    
+    public int size() {
+        return approverIds.length;
+    }
+    
+    public Instant getCompiledAt() {
+        return compiledAt;
+    }
+    
+    BigDecimal thresholdAt(int index) {
+        return thresholds[index];
+    }
+    
+    long approverIdAt(int index) {
+        return approverIds[index];
+    }
+}
@@ -0,0 +1,76 @@
+package com.teaminfinity.expensemanagement.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable country to default-currency catalog.
+ * 
+ * Keeps the name-sorted map served to clients, a lower-cased index for
+ * case-insensitive lookups, and an ETag derived from the content so
+ * unchanged catalogs can be answered with 304 Not Modified.
+ */
+public final class CountryCatalog {
+    
+    private final Map<String, String> currenciesByCountry;
+    private final Map<String, String> currenciesByNormalizedCountry;
+    private final String etag;
+    
+    private CountryCatalog(Map<String, String> currenciesByCountry,
+                           Map<String, String> currenciesByNormalizedCountry, String etag) {
+        this.currenciesByCountry = currenciesByCountry;
+        this.currenciesByNormalizedCountry = currenciesByNormalizedCountry;
+        this.etag = etag;
+    }
+    
+    /**
+     * Build a catalog from a country name to currency code map.
+     */
+    public static CountryCatalog of(Map<String, String> countries) {
+        TreeMap<String, String> sorted = new TreeMap<>(countries);
+        Map<String, String> normalized = new HashMap<>(sorted.size() * 2);
+        StringBuilder content = new StringBuilder();
+        
+        sorted.forEach((country, currency) -> {
+            normalized.putIfAbsent(normalize(country), currency);
+            content.append(country).append('=').append(currency).append('\n');
+        });
+        
+        String etag = DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+        return new CountryCatalog(Collections.unmodifiableMap(sorted), Map.copyOf(normalized), etag);
+    }
+    
+    /**
+     * Currency code for a country name (case-insensitive, surrounding whitespace ignored).
+     * 
+     * @return The currency code, or null if the country is unknown
+     */
+    public String currencyFor(String country) {
+        return country == null ? null : currenciesByNormalizedCountry.get(normalize(country));
+    }
+    
+    /**
+     * All countries sorted by name, mapped to their currency codes.
+     */
+    public Map<String, String> getCurrenciesByCountry() {
+        return currenciesByCountry;
+    }
+    
+    public String getEtag() {
+        return etag;
+    }
+    
+    public int size() {
+        return currenciesByCountry.size();
+    }
+    
+    private static String normalize(String country) {
+        return country.trim().toLowerCase(Locale.ROOT);
+    }
+}
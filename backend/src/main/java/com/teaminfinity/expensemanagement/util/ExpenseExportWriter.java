@@ -0,0 +1,155 @@
+package com.teaminfinity.expensemanagement.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse;
+import com.teaminfinity.expensemanagement.entity.Expense;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental writer for expense exports.
+ * Rows are written one at a time so an export never buffers more than the
+ * writer's internal buffer, regardless of how many rows are exported.
+ * Closing the writer flushes it but leaves the underlying stream open.
+ */
+public abstract class ExpenseExportWriter implements AutoCloseable {
+
+    /**
+     * Create a writer for CSV output with a header row.
+     */
+    public static ExpenseExportWriter csv(OutputStream out) {
+        return new CsvWriter(out);
+    }
+
+    /**
+     * Create a writer for newline-delimited JSON output (one object per line).
+     */
+    public static ExpenseExportWriter ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return new NdjsonWriter(out, objectMapper);
+    }
+
+    public abstract void write(Expense expense) throws IOException;
+
+    public abstract void flush() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private static class CsvWriter extends ExpenseExportWriter {
+
+        private static final String HEADER =
+                "id,user_id,user_full_name,amount,currency,category,description,expense_date,receipt_image_url,receipt_hash,status,created_at\n";
+
+        private final Writer writer;
+        private boolean headerWritten;
+
+        CsvWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public void write(Expense expense) throws IOException {
+            if (!headerWritten) {
+                writer.write(HEADER);
+                headerWritten = true;
+            }
+            writer.write(String.valueOf(expense.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(expense.getUser().getId()));
+            writer.write(',');
+            writeField(expense.getUser().getFullName());
+            writer.write(',');
+            writer.write(expense.getAmount().toPlainString());
+            writer.write(',');
+            writeField(expense.getCurrency());
+            writer.write(',');
+            writeField(expense.getCategory());
+            writer.write(',');
+            writeField(expense.getDescription());
+            writer.write(',');
+            writer.write(expense.getExpenseDate().toString());
+            writer.write(',');
+            writeField(expense.getReceiptImageUrl());
+            writer.write(',');
+            writeField(expense.getReceiptHash());
+            writer.write(',');
+            writer.write(expense.getStatus().name());
+            writer.write(',');
+            writer.write(String.valueOf(expense.getCreatedAt()));
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!needsQuotes) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!headerWritten) {
+                writer.write(HEADER);
+                headerWritten = true;
+            }
+            writer.flush();
+        }
+    }
+
+    private static class NdjsonWriter extends ExpenseExportWriter {
+
+        private final SequenceWriter sequenceWriter;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.sequenceWriter = objectMapper.writerFor(ExpenseResponse.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out);
+        }
+
+        @Override
+        public void write(Expense expense) throws IOException {
+            sequenceWriter.write(new ExpenseResponse(
+                    expense.getId(),
+                    expense.getUser().getId(),
+                    expense.getUser().getFullName(),
+                    expense.getAmount(),
+                    expense.getCurrency(),
+                    expense.getCategory(),
+                    expense.getDescription(),
+                    expense.getExpenseDate(),
+                    expense.getReceiptImageUrl(),
+                    expense.getReceiptHash(),
+                    expense.getStatus().name(),
+                    expense.getCreatedAt()
+            ));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sequenceWriter.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            sequenceWriter.close();
+        }
+    }
+}
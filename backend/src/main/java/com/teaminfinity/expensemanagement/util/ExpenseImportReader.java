@@ -0,0 +1,231 @@
+package com.teaminfinity.expensemanagement.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseImportRow;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Incremental reader for bulk expense imports.
+ * Rows are parsed one at a time from the request stream so an import never
+ * holds more than the current record in memory.
+ *
+ * A malformed row raises {@link IllegalArgumentException} after it has been
+ * consumed, so callers can record the error and keep reading.
+ */
+public abstract class ExpenseImportReader implements Closeable {
+
+    protected final BufferedReader reader;
+    protected long lineNumber;
+
+    protected ExpenseImportReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /**
+     * Create a reader for CSV input. The first record must be a header row.
+     */
+    public static ExpenseImportReader csv(InputStream in) {
+        return new CsvReader(in);
+    }
+
+    /**
+     * Create a reader for newline-delimited JSON input (one object per line).
+     */
+    public static ExpenseImportReader ndjson(InputStream in, ObjectMapper objectMapper) {
+        return new NdjsonReader(in, objectMapper.readerFor(ExpenseImportRow.class));
+    }
+
+    /**
+     * Read the next row.
+     *
+     * @return The parsed row, or null at end of input
+     * @throws IllegalArgumentException if the row is malformed
+     */
+    public abstract ExpenseImportRow next() throws IOException;
+
+    /**
+     * Line number at which the most recently read row starts (1-based).
+     */
+    public abstract long getRowLine();
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * RFC 4180 style CSV: comma separated, double-quote escaping, quoted fields may span lines.
+     */
+    private static class CsvReader extends ExpenseImportReader {
+
+        private String[] header;
+        private long rowLine;
+
+        CsvReader(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public ExpenseImportRow next() throws IOException {
+            if (header == null) {
+                List<String> headerFields = readRecord();
+                if (headerFields == null) {
+                    return null;
+                }
+                header = new String[headerFields.size()];
+                for (int i = 0; i < header.length; i++) {
+                    header[i] = normalizeColumn(headerFields.get(i));
+                }
+            }
+
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            if (fields.size() > header.length) {
+                throw new IllegalArgumentException("Expected " + header.length + " columns but found " + fields.size());
+            }
+
+            ExpenseImportRow row = new ExpenseImportRow();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).trim();
+                if (!value.isEmpty()) {
+                    applyColumn(row, header[i], value);
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public long getRowLine() {
+            return rowLine;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            lineNumber++;
+            rowLine = lineNumber;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private static String normalizeColumn(String column) {
+            return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+        }
+
+        private static void applyColumn(ExpenseImportRow row, String column, String value) {
+            try {
+                switch (column) {
+                    case "useremail" -> row.setUserEmail(value);
+                    case "amount" -> row.setAmount(new BigDecimal(value));
+                    case "currency" -> row.setCurrency(value);
+                    case "category" -> row.setCategory(value);
+                    case "description" -> row.setDescription(value);
+                    case "expensedate" -> row.setExpenseDate(LocalDate.parse(value));
+                    case "receiptimageurl" -> row.setReceiptImageUrl(value);
+                    case "status" -> row.setStatus(ExpenseStatus.valueOf(value.toUpperCase(Locale.ROOT)));
+                    default -> {
+                        // Unknown columns are ignored
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid value for column '" + column + "': " + value);
+            }
+        }
+    }
+
+    /**
+     * Newline-delimited JSON: one {@link ExpenseImportRow} object per line, blank lines skipped.
+     */
+    private static class NdjsonReader extends ExpenseImportReader {
+
+        private final ObjectReader rowReader;
+
+        NdjsonReader(InputStream in, ObjectReader rowReader) {
+            super(in);
+            this.rowReader = rowReader;
+        }
+
+        @Override
+        public ExpenseImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (line.isBlank());
+
+            try {
+                return rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public long getRowLine() {
+            return lineNumber;
+        }
+    }
+}
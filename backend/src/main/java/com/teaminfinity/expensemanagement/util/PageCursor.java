@@ -0,0 +1,49 @@
+package com.teaminfinity.expensemanagement.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset pagination position on (created_at, id), newest first.
+ * Encoded as an opaque URL-safe token so clients never depend on its contents.
+ */
+public record PageCursor(LocalDateTime createdAt, Long id) {
+    
+    /**
+     * Position before the newest possible row, used when no cursor is supplied.
+     */
+    public static final PageCursor FIRST_PAGE = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    
+    public static PageCursor of(LocalDateTime createdAt, Long id) {
+        return new PageCursor(createdAt, id);
+    }
+    
+    /**
+     * Decode a cursor received from a client.
+     * 
+     * @param cursor Opaque cursor, or null/blank for the first page
+     * @throws ResponseStatusException (400) if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST_PAGE;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,28 @@
+package com.teaminfinity.expensemanagement.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the requested page size for paginated list endpoints against the configured cap.
+ */
+@Component
+public class PageLimits {
+    
+    @Value("${pagination.default-page-size}")
+    private int defaultPageSize;
+    
+    @Value("${pagination.max-page-size}")
+    private int maxPageSize;
+    
+    /**
+     * @param requested Page size from the request, or null for the default
+     * @return Page size between 1 and the configured maximum
+     */
+    public int resolve(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+}
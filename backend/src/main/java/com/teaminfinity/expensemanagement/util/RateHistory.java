@@ -0,0 +1,137 @@
+package com.teaminfinity.expensemanagement.util;
+
+import com.teaminfinity.expensemanagement.entity.CurrencyRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, date-indexed table of daily exchange rates from one base currency.
+ * 
+ * Each quote currency keeps its snapshot days (as epoch days) and rates in
+ * parallel sorted arrays, so a lookup is a binary search with no allocation.
+ * New snapshots produce a new instance (copy-on-write) that callers swap in.
+ */
+public final class RateHistory {
+    
+    private final String baseCurrency;
+    private final Map<String, Series> seriesByCurrency;
+    private final LocalDate latestDate;
+    
+    private RateHistory(String baseCurrency, Map<String, Series> seriesByCurrency, LocalDate latestDate) {
+        this.baseCurrency = baseCurrency;
+        this.seriesByCurrency = seriesByCurrency;
+        this.latestDate = latestDate;
+    }
+    
+    public static RateHistory empty(String baseCurrency) {
+        return new RateHistory(baseCurrency, Map.of(), null);
+    }
+    
+    /**
+     * Build a history from persisted snapshot rows for the given base currency.
+     */
+    public static RateHistory of(String baseCurrency, List<CurrencyRate> rows) {
+        Map<String, List<CurrencyRate>> rowsByCurrency = new HashMap<>();
+        LocalDate latest = null;
+        for (CurrencyRate row : rows) {
+            rowsByCurrency.computeIfAbsent(row.getQuoteCurrency(), c -> new ArrayList<>()).add(row);
+            if (latest == null || row.getRateDate().isAfter(latest)) {
+                latest = row.getRateDate();
+            }
+        }
+        
+        Map<String, Series> series = new HashMap<>();
+        rowsByCurrency.forEach((currency, currencyRows) -> {
+            currencyRows.sort((a, b) -> a.getRateDate().compareTo(b.getRateDate()));
+            long[] days = new long[currencyRows.size()];
+            BigDecimal[] rates = new BigDecimal[currencyRows.size()];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = currencyRows.get(i).getRateDate().toEpochDay();
+                rates[i] = currencyRows.get(i).getRate();
+            }
+            series.put(currency, new Series(days, rates));
+        });
+        
+        return new RateHistory(baseCurrency, series, latest);
+    }
+    
+    /**
+     * Return a copy of this history with one day's snapshot added (or replaced).
+     */
+    public RateHistory withSnapshot(LocalDate date, Map<String, BigDecimal> rates) {
+        Map<String, Series> series = new HashMap<>(seriesByCurrency);
+        long day = date.toEpochDay();
+        rates.forEach((currency, rate) -> {
+            Series existing = series.get(currency);
+            series.put(currency, existing == null
+                    ? new Series(new long[]{day}, new BigDecimal[]{rate})
+                    : existing.with(day, rate));
+        });
+        
+        LocalDate latest = latestDate == null || date.isAfter(latestDate) ? date : latestDate;
+        return new RateHistory(baseCurrency, series, latest);
+    }
+    
+    /**
+     * Rate from the base currency to the given currency in effect on a date:
+     * the latest snapshot on or before the date, or the earliest snapshot for
+     * dates before history starts.
+     * 
+     * @return The rate, or null if the currency has never been snapshotted
+     */
+    public BigDecimal rateOn(String currency, LocalDate date) {
+        if (baseCurrency.equals(currency)) {
+            return BigDecimal.ONE;
+        }
+        Series series = seriesByCurrency.get(currency);
+        return series == null ? null : series.rateOn(date.toEpochDay());
+    }
+    
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+    
+    /**
+     * Most recent snapshot day, or null if the history is empty.
+     */
+    public LocalDate getLatestDate() {
+        return latestDate;
+    }
+    
+    private record Series(long[] days, BigDecimal[] rates) {
+        
+        BigDecimal rateOn(long day) {
+            int index = Arrays.binarySearch(days, day);
+            if (index < 0) {
+                index = Math.max(-index - 2, 0);
+            }
+            return rates[index];
+        }
+        
+        Series with(long day, BigDecimal rate) {
+            int index = Arrays.binarySearch(days, day);
+            if (index >= 0) {
+                BigDecimal[] newRates = rates.clone();
+                newRates[index] = rate;
+                return new Series(days, newRates);
+            }
+            
+            int insertAt = -index - 1;
+            long[] newDays = new long[days.length + 1];
+            BigDecimal[] newRates = new BigDecimal[rates.length + 1];
+            System.arraycopy(days, 0, newDays, 0, insertAt);
+            System.arraycopy(rates, 0, newRates, 0, insertAt);
+            newDays[insertAt] = day;
+            newRates[insertAt] = rate;
+            System.arraycopy(days, insertAt, newDays, insertAt + 1, days.length - insertAt);
+            System.arraycopy(rates, insertAt, newRates, insertAt + 1, rates.length - insertAt);
+            return new Series(newDays, newRates);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.teaminfinity.expensemanagement.util;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records the SQL statements run by the current thread while a {@link Recording} is
+ * open (per HTTP request when sql.statements.per-request.enabled is set, or around an
+ * operation in tests). Without an open recording it only does a thread-local lookup.
+ * 
+ * Statements are recorded at the JDBC level by a {@link #wrap wrapped} DataSource, so
+ * Hibernate and JdbcTemplate statements are counted alike. A prepared statement counts
+ * once however often it is executed, so a JDBC batch counts as a single statement.
+ */
+public final class SqlStatementRecorder {
+    
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+    
+    private SqlStatementRecorder() {
+    }
+    
+    /**
+     * Record a statement in the current thread's open recordings, if any.
+     */
+    public static void record(String sql) {
+        for (Recording recording = CURRENT.get(); recording != null; recording = recording.parent) {
+            recording.statements.add(sql);
+        }
+    }
+    
+    /**
+     * Open a recording on the current thread. Recordings nest: statements also count
+     * toward any recording that was open when this one started.
+     */
+    public static Recording start() {
+        Recording recording = new Recording(CURRENT.get());
+        CURRENT.set(recording);
+        return recording;
+    }
+    
+    /**
+     * Wrap a DataSource so that statements prepared or executed on its connections are recorded.
+     */
+    public static DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            
+            @Override
+            public Connection getConnection() throws SQLException {
+                return recording(getTargetDataSource().getConnection());
+            }
+            
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return recording(getTargetDataSource().getConnection(username, password));
+            }
+        };
+    }
+    
+    private static Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SqlStatementRecorder.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    /**
+     * Records prepared statements when they are prepared, and hands out recording
+     * plain statements (whose SQL is only known when they execute).
+     */
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> record((String) args[0]);
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                }
+            }
+            Object result = SqlStatementRecorder.invoke(target, method, args);
+            if (method.getName().equals("createStatement")) {
+                return Proxy.newProxyInstance(SqlStatementRecorder.class.getClassLoader(),
+                        new Class<?>[]{Statement.class}, new StatementHandler((Statement) result));
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Records each execution of a plain statement; a batch of plain statements is
+     * recorded once, when it executes.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        
+        private final Statement target;
+        private final List<String> batch = new ArrayList<>();
+        
+        private StatementHandler(Statement target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute") && args != null && args.length > 0 && args[0] instanceof String sql) {
+                record(sql);
+            } else if (name.equals("addBatch")) {
+                batch.add((String) args[0]);
+            } else if (name.equals("clearBatch")) {
+                batch.clear();
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                record(String.join(";\n", batch));
+                batch.clear();
+            }
+            return SqlStatementRecorder.invoke(target, method, args);
+        }
+    }
+    
+    /**
+     * Statements recorded on one thread between {@link #start()} and {@link #close()}.
+     * The statements stay readable after closing.
+     */
+    public static final class Recording implements AutoCloseable {
+        
+        private final Recording parent;
+        private final List<String> statements = new ArrayList<>();
+        
+        private Recording(Recording parent) {
+            this.parent = parent;
+        }
+        
+        /**
+         * Recorded statements, excluding pooled sequence calls (which happen once per
+         * allocation block, not once per row).
+         */
+        public List<String> statements() {
+            return statements.stream()
+                    .filter(sql -> !sql.toLowerCase(Locale.ROOT).contains("nextval"))
+                    .filter(sql -> !sql.toLowerCase(Locale.ROOT).contains("next value for"))
+                    .toList();
+        }
+        
+        public int count() {
+            return statements().size();
+        }
+        
+        @Override
+        public void close() {
+            if (CURRENT.get() != this) {
+                return;
+            }
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- V4: Composite indexes backing keyset pagination on (created_at, id), newest first
+
+-- GET /api/expenses/my (also covers plain lookups by user_id)
+CREATE INDEX idx_expenses_user_created ON expenses(user_id, created_at DESC, id DESC);
+DROP INDEX idx_expenses_user_id;
+
+-- GET /api/expenses/my/status/{status}
+CREATE INDEX idx_expenses_user_status_created ON expenses(user_id, status, created_at DESC, id DESC);
+
+-- GET /api/expenses/pending (company filter is applied through the users join)
+CREATE INDEX idx_expenses_status_created ON expenses(status, created_at DESC, id DESC);
+
+-- GET /api/approvals/pending (also covers plain lookups by approver_id)
+CREATE INDEX idx_approval_steps_approver_decision_created ON approval_steps(approver_id, decision, created_at DESC, id DESC);
+DROP INDEX idx_approval_steps_approver_id;
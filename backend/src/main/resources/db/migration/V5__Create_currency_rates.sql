@@ -0,0 +1,14 @@
+-- V5: Daily exchange-rate snapshots, so expenses can be converted at the rate
+-- of their expense date without calling the rate provider.
+
+CREATE SEQUENCE currency_rates_seq INCREMENT BY 50;
+
+CREATE TABLE currency_rates (
+    id BIGINT DEFAULT nextval('currency_rates_seq') PRIMARY KEY,
+    rate_date DATE NOT NULL,
+    base_currency VARCHAR(10) NOT NULL,
+    quote_currency VARCHAR(10) NOT NULL,
+    rate DECIMAL(24,10) NOT NULL,
+    fetched_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_currency_rates_base_date_quote UNIQUE (base_currency, rate_date, quote_currency)
+);
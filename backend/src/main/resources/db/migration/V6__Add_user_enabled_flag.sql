@@ -0,0 +1,4 @@
+-- V6: Allow admins to disable users. Disabled users cannot log in, and
+-- existing tokens stop working once the user-status cache entry expires.
+
+ALTER TABLE users ADD COLUMN enabled BOOLEAN NOT NULL DEFAULT TRUE;
@@ -0,0 +1,27 @@
+-- V7: Spend totals per company, month, category, status and currency, maintained
+-- incrementally as expenses are submitted and decided, so dashboards read buckets
+-- instead of scanning expenses.
+
+CREATE SEQUENCE expense_rollups_seq;
+
+CREATE TABLE expense_rollups (
+    id BIGINT DEFAULT nextval('expense_rollups_seq') PRIMARY KEY,
+    company_id BIGINT NOT NULL REFERENCES companies(id) ON DELETE CASCADE,
+    expense_month DATE NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    currency VARCHAR(10) NOT NULL,
+    total_amount DECIMAL(19,2) NOT NULL DEFAULT 0,
+    expense_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_expense_rollups_bucket UNIQUE (company_id, expense_month, category, status, currency)
+);
+
+-- Backfill from the expenses that already exist, so reports include them and later
+-- status changes move counts out of buckets that actually hold them.
+INSERT INTO expense_rollups (company_id, expense_month, category, status, currency, total_amount, expense_count)
+SELECT u.company_id, CAST(DATE_TRUNC('month', e.expense_date) AS DATE), e.category, e.status, e.currency,
+       SUM(e.amount), COUNT(*)
+FROM expenses e
+JOIN users u ON u.id = e.user_id
+GROUP BY u.company_id, CAST(DATE_TRUNC('month', e.expense_date) AS DATE), e.category, e.status, e.currency;
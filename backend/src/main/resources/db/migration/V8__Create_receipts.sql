@@ -0,0 +1,13 @@
+-- V8: Content-addressed receipt files. Each distinct file is stored once on disk,
+-- keyed by the SHA-256 of its bytes; expenses reference receipts by that hash.
+
+CREATE TABLE receipts (
+    hash VARCHAR(64) PRIMARY KEY,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE expenses ADD COLUMN receipt_hash VARCHAR(64) REFERENCES receipts(hash);
+
+CREATE INDEX idx_expenses_receipt_hash ON expenses(receipt_hash);
@@ -0,0 +1,13 @@
+-- V9: Optimistic locking for expenses and approval steps, plus per-expense step
+-- counters so a decision can resolve the expense status without reading every step.
+
+ALTER TABLE expenses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE expenses ADD COLUMN total_steps INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE expenses ADD COLUMN approved_steps INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE approval_steps ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+UPDATE expenses SET
+    total_steps = (SELECT COUNT(*) FROM approval_steps s WHERE s.expense_id = expenses.id),
+    approved_steps = (SELECT COUNT(*) FROM approval_steps s
+                      WHERE s.expense_id = expenses.id AND s.decision = 'APPROVED');
@@ -0,0 +1,74 @@
+package com.teaminfinity.expensemanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Scrape endpoint security and contents, and the company tag limit.
+ */
+@SpringBootTest(properties = "metrics.scrape.password=scrape-secret")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsConfigTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void testPrometheusEndpoint_RequiresScrapeCredentials() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong")))
+                .andExpect(status().isUnauthorized());
+        // Application logins do not grant access to metrics
+        mockMvc.perform(get("/actuator/prometheus").with(user("admin@company.com").roles("ADMIN")))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void testPrometheusEndpoint_ExposesApplicationAndPoolMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("expense_submit_seconds_bucket")))
+                .andExpect(content().string(containsString("approval_decision_seconds_bucket{mode=\"bulk\"")))
+                .andExpect(content().string(containsString("expense_pending ")))
+                .andExpect(content().string(containsString("approval_steps_pending ")))
+                .andExpect(content().string(containsString("circuit_breaker_state{name=\"currency-rates\",state=\"closed\"} 1.0")))
+                .andExpect(content().string(containsString("currency_rates_lookups_total{result=\"hit\"}")))
+                .andExpect(content().string(containsString("ocr_jobs_queue_capacity ")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_sessions_open_total")));
+    }
+    
+    @Test
+    void testCompanyTagLimit_MapsCompaniesBeyondLimitToOther() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricsConfig.CompanyTagLimit(2));
+        
+        for (String company : new String[] {"1", "2", "3", "4", "1"}) {
+            registry.counter("expense.submissions", MetricsConfig.COMPANY_TAG, company).increment();
+        }
+        
+        assertEquals(2, registry.get("expense.submissions").tag(MetricsConfig.COMPANY_TAG, "1").counter().count());
+        assertEquals(1, registry.get("expense.submissions").tag(MetricsConfig.COMPANY_TAG, "2").counter().count());
+        assertEquals(2, registry.get("expense.submissions")
+                .tag(MetricsConfig.COMPANY_TAG, MetricsConfig.OTHER_COMPANY).counter().count());
+        assertEquals(3, registry.get("expense.submissions").counters().size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.ApprovalStep;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.CompanyApprovalRule;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ApprovalRuleType;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.repository.ApprovalStepRepository;
+import com.teaminfinity.expensemanagement.repository.CompanyApprovalRuleRepository;
+import com.teaminfinity.expensemanagement.service.ExpenseService;
+import com.teaminfinity.expensemanagement.support.SqlStatementCounter;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test for ApprovalController, pinning the SQL statements per request.
+ * The persistence context is cleared after setup so lazy loads show up as they would
+ * in a fresh request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ApprovalControllerTest {
+    
+    private static final int APPROVERS = 3;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ExpenseService expenseService;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private CompanyApprovalRuleRepository approvalRuleRepository;
+    
+    @Autowired
+    private ApprovalStepRepository approvalStepRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private AppUser employee;
+    private List<AppUser> approvers;
+    private Expense expense;
+    
+    @BeforeEach
+    void setUp() {
+        Company company = fixtures.createCompany("Approval Corp", false);
+        
+        approvers = new ArrayList<>();
+        for (int i = 1; i <= APPROVERS; i++) {
+            AppUser approver = fixtures.createUser("approver" + i + "@approvals.com", Role.ADMIN, company);
+            CompanyApprovalRule rule = new CompanyApprovalRule();
+            rule.setCompany(company);
+            rule.setRuleType(ApprovalRuleType.SPECIFIC_APPROVER);
+            rule.setSpecificApprover(approver);
+            rule.setSequence(i);
+            approvalRuleRepository.save(rule);
+            approvers.add(approver);
+        }
+        employee = fixtures.createUser("employee@approvals.com", Role.EMPLOYEE, company);
+        
+        expense = expenseService.submitExpense(employee, new BigDecimal("80.00"), "USD", "Meals",
+                "Team lunch", LocalDate.of(2025, 6, 2), null, null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Test
+    void testGetApprovalSteps_OneStatementRegardlessOfApprovers() throws Exception {
+        mockMvc.perform(get("/api/approvals/expense/{expenseId}", expense.getId()).with(user(employee)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(APPROVERS))
+                .andExpect(jsonPath("$[2].approverName").value("approver3@approvals.com"))
+                .andExpect(jsonPath("$[0].submitterName").value("employee@approvals.com"))
+                .andExpect(header().string("X-Sql-Statements", "1"))
+                .andExpect(SqlStatementCounter.statements(1));
+    }
+    
+    @Test
+    void testProcessApproval_StatementCount() throws Exception {
+        ApprovalStep first = approvalStepRepository.findByExpenseIdOrderBySequenceAsc(expense.getId()).get(0);
+        entityManager.clear();
+        
+        // Step and expense loads, then approver and submitter for the response; the step and
+        // expense updates are flushed with the test transaction, after the request
+        mockMvc.perform(put("/api/approvals/{stepId}", first.getId())
+                        .with(user(approvers.get(0)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"decision\":\"APPROVED\",\"comments\":\"ok\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.decision").value("APPROVED"))
+                .andExpect(SqlStatementCounter.statements(4));
+    }
+}
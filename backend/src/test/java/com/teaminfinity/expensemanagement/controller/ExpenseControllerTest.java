@@ -1,6 +1,8 @@
 package com.teaminfinity.expensemanagement.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teaminfinity.expensemanagement.dto.common.CursorPage;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse;
 import com.teaminfinity.expensemanagement.dto.expense.SubmitExpenseRequest;
 import com.teaminfinity.expensemanagement.entity.AppUser;
 import com.teaminfinity.expensemanagement.entity.Company;
@@ -8,6 +10,7 @@ import com.teaminfinity.expensemanagement.entity.Expense;
 import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
 import com.teaminfinity.expensemanagement.enums.Role;
 import com.teaminfinity.expensemanagement.service.ExpenseService;
+import com.teaminfinity.expensemanagement.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,14 +22,20 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -94,7 +103,7 @@ class ExpenseControllerTest {
         request.setExpenseDate(LocalDate.now());
         
         // Mock service
-        when(expenseService.submitExpense(any(), any(), any(), any(), any(), any(), any()))
+        when(expenseService.submitExpense(any(), any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(testExpense);
         
         // Perform request and verify
@@ -113,15 +122,36 @@ class ExpenseControllerTest {
     @WithMockUser(username = "test@test.com", roles = {"EMPLOYEE"})
     void testGetMyExpenses() throws Exception {
         // Mock service
-        List<Expense> expenses = Arrays.asList(testExpense);
-        when(expenseService.getUserExpenses(any())).thenReturn(expenses);
+        List<ExpenseResponse> expenses = Arrays.asList(ExpenseController.mapToExpenseResponse(testExpense));
+        when(expenseService.getUserExpenses(any(), any(), anyInt())).thenReturn(new CursorPage<>(expenses, null));
         
         // Perform request and verify
-        mockMvc.perform(get("/api/expenses/my"))
+        mockMvc.perform(get("/api/expenses/my").with(user(testUser)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].amount").value(100.00))
-                .andExpect(jsonPath("$[0].status").value("PENDING"));
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].amount").value(100.00))
+                .andExpect(jsonPath("$.items[0].status").value("PENDING"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+    
+    @Test
+    void testGetMyExpenses_RejectsInvalidCursor() throws Exception {
+        String valid = PageCursor.of(LocalDateTime.of(2024, 3, 15, 9, 0), 42L).encode();
+        List<String> invalid = List.of(
+                "not a cursor!",
+                valid.substring(0, valid.length() / 2 + 1),
+                encode("2024-03-15T09:00|forty-two"),
+                encode("2024-13-45T09:00|42"),
+                encode("no separator"));
+        
+        for (String cursor : invalid) {
+            mockMvc.perform(get("/api/expenses/my").with(user(testUser)).param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/expenses/my/status/PENDING").with(user(testUser)).param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(expenseService, never()).getUserExpenses(any(), any(), anyInt());
+        verify(expenseService, never()).getUserExpensesByStatus(any(), any(), any(), anyInt());
     }
     
     @Test
@@ -152,4 +182,8 @@ class ExpenseControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnauthorized());
     }
+    
+    private static String encode(String rawCursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(rawCursor.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,169 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.repository.ExpenseRepository;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test for the streaming expense export.
+ *
+ * Not transactional: the export reads on the async request thread, so the test data
+ * must be committed. It is removed again after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExpenseExportControllerTest {
+    
+    private static final String TRICKY_DESCRIPTION = "Taxi, airport \"late\" run\nsecond line";
+    private static final String RECEIPT_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<Long> companyIds = new ArrayList<>();
+    private AppUser manager;
+    private AppUser employee;
+    private Expense tricky;
+    private Expense approved;
+    
+    @BeforeEach
+    void setUp() {
+        Company company = fixtures.createCompany("Export Corp", false);
+        companyIds.add(company.getId());
+        manager = fixtures.createUser("manager@export.com", Role.MANAGER, company);
+        employee = fixtures.createUser("employee@export.com", Role.EMPLOYEE, company);
+        jdbcTemplate.update("INSERT INTO receipts (hash, content_type, size_bytes) VALUES (?, 'image/png', 4)", RECEIPT_HASH);
+        tricky = createExpense(employee, "12.50", "Travel", TRICKY_DESCRIPTION, ExpenseStatus.PENDING, null);
+        approved = createExpense(employee, "80.00", "Meals", "Team lunch", ExpenseStatus.APPROVED, RECEIPT_HASH);
+        
+        Company otherCompany = fixtures.createCompany("Other Export Corp", false);
+        companyIds.add(otherCompany.getId());
+        AppUser outsider = fixtures.createUser("outsider@export.com", Role.EMPLOYEE, otherCompany);
+        createExpense(outsider, "999.99", "Travel", "Not ours", ExpenseStatus.PENDING, null);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        companyIds.forEach(id -> jdbcTemplate.update("DELETE FROM companies WHERE id = ?", id));
+        jdbcTemplate.update("DELETE FROM receipts WHERE hash = ?", RECEIPT_HASH);
+    }
+    
+    @Test
+    void testExportCsv_EscapesFieldsAndOnlyIncludesOwnCompany() throws Exception {
+        String csv = export("CSV", "text/csv", "expenses.csv", null);
+        
+        String expected = "id,user_id,user_full_name,amount,currency,category,description,expense_date,"
+                + "receipt_image_url,receipt_hash,status,created_at\n"
+                + tricky.getId() + "," + employee.getId() + ",employee@export.com,12.50,USD,Travel,"
+                + "\"Taxi, airport \"\"late\"\" run\nsecond line\"," + tricky.getExpenseDate() + ",,,PENDING,"
+                + tricky.getCreatedAt() + "\n"
+                + approved.getId() + "," + employee.getId() + ",employee@export.com,80.00,USD,Meals,Team lunch,"
+                + approved.getExpenseDate() + ",," + RECEIPT_HASH + ",APPROVED," + approved.getCreatedAt() + "\n";
+        assertEquals(expected, csv);
+    }
+    
+    @Test
+    void testExportNdjson_WritesOneObjectPerLineAndAppliesFilters() throws Exception {
+        String ndjson = export("NDJSON", MediaType.APPLICATION_NDJSON_VALUE, "expenses.ndjson", null);
+        
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(tricky.getId(), first.get("id").asLong());
+        assertEquals(TRICKY_DESCRIPTION, first.get("description").asText());
+        assertEquals("PENDING", first.get("status").asText());
+        assertTrue(first.get("receiptHash").isNull());
+        assertEquals(approved.getId(), objectMapper.readTree(lines[1]).get("id").asLong());
+        assertEquals(RECEIPT_HASH, objectMapper.readTree(lines[1]).get("receiptHash").asText());
+        
+        String filtered = export("NDJSON", MediaType.APPLICATION_NDJSON_VALUE, "expenses.ndjson", "APPROVED");
+        assertEquals(approved.getId(), objectMapper.readTree(filtered.trim()).get("id").asLong());
+    }
+    
+    @Test
+    void testExport_UsesExportTimeoutAndRequiresManager() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/expenses/export").with(user(manager)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        
+        mockMvc.perform(get("/api/expenses/export").with(user(employee)))
+                .andExpect(status().isForbidden());
+    }
+    
+    private String export(String format, String contentType, String filename, String status) throws Exception {
+        var request = get("/api/expenses/export").with(user(manager)).param("format", format);
+        if (status != null) {
+            request.param("status", status);
+        }
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\""))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().contentTypeCompatibleWith(contentType))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+    
+    private Expense createExpense(AppUser user, String amount, String category, String description,
+                                  ExpenseStatus status, String receiptHash) {
+        Expense expense = new Expense();
+        expense.setUser(user);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setCurrency("USD");
+        expense.setCategory(category);
+        expense.setDescription(description);
+        expense.setExpenseDate(LocalDate.of(2024, 3, 15));
+        expense.setStatus(status);
+        expense.setReceiptHash(receiptHash);
+        // Read back for created_at as stored (the database keeps microseconds, not nanoseconds)
+        return expenseRepository.findById(expenseRepository.save(expense).getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,133 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.config.SqlStatementConfig;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.support.SqlStatementCounter;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test for the bulk expense import endpoint.
+ *
+ * Not transactional: imported chunks commit in their own transactions, so the test
+ * data is removed after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExpenseImportControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Company company;
+    private AppUser admin;
+    private AppUser employee;
+    
+    @BeforeEach
+    void setUp() {
+        company = fixtures.createCompany("Import Endpoint Corp", false);
+        admin = fixtures.createUser("admin@import-endpoint.com", Role.ADMIN, company);
+        employee = fixtures.createUser("employee@import-endpoint.com", Role.EMPLOYEE, company);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM companies WHERE id = ?", company.getId());
+    }
+    
+    @Test
+    void testImportCsv_ReturnsSummaryAndRowErrors() throws Exception {
+        String csv = "user_email,amount,currency,category,description,expense_date\n"
+                + "employee@import-endpoint.com,42.00,USD,Meals,Lunch,2024-03-15\n"
+                + "nobody@import-endpoint.com,10.00,USD,Meals,Ghost,2024-03-15\n";
+        
+        mockMvc.perform(post("/api/expenses/import").with(user(admin))
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(2))
+                .andExpect(jsonPath("$.importedRows").value(1))
+                .andExpect(jsonPath("$.failedRows").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Unknown user: nobody@import-endpoint.com"))
+                .andExpect(jsonPath("$.errorsTruncated").value(false));
+        
+        assertEquals(List.of("Lunch"), importedDescriptions());
+    }
+    
+    @Test
+    void testImportNdjson_ImportsEachLine() throws Exception {
+        String ndjson = """
+                {"userEmail":"employee@import-endpoint.com","amount":12.50,"currency":"EUR","category":"Travel","description":"Taxi","expenseDate":"2024-03-15"}
+                {"userEmail":"employee@import-endpoint.com","amount":7,"currency":"USD","category":"Meals","description":"Coffee","expenseDate":"2024-03-16","status":"APPROVED"}
+                """;
+        
+        mockMvc.perform(post("/api/expenses/import").with(user(admin))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(2))
+                .andExpect(jsonPath("$.importedRows").value(2))
+                .andExpect(jsonPath("$.failedRows").value(0));
+        
+        assertEquals(List.of("Taxi", "Coffee"), importedDescriptions());
+    }
+    
+    @Test
+    void testImport_CountsJdbcBatchStatements() throws Exception {
+        StringBuilder csv = new StringBuilder("user_email,amount,currency,category,description,expense_date\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append("employee@import-endpoint.com,").append(i + 1).append(".00,USD,Meals,Row ").append(i).append(",2024-03-15\n");
+        }
+        
+        // The import context (users, company, rules), one JdbcTemplate batch for all 20
+        // expenses (no approvers here), and the new rollup bucket (update, then insert)
+        mockMvc.perform(post("/api/expenses/import").with(user(admin))
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows").value(20))
+                .andExpect(header().exists(SqlStatementConfig.HEADER))
+                .andExpect(SqlStatementCounter.statements(6));
+    }
+    
+    @Test
+    void testImport_RequiresAdmin() throws Exception {
+        mockMvc.perform(post("/api/expenses/import").with(user(employee))
+                        .contentType("text/csv")
+                        .content("user_email,amount\nemployee@import-endpoint.com,1\n"))
+                .andExpect(status().isForbidden());
+        
+        assertTrue(importedDescriptions().isEmpty());
+    }
+    
+    private List<String> importedDescriptions() {
+        return jdbcTemplate.queryForList("SELECT e.description FROM expenses e JOIN users u ON u.id = e.user_id " +
+                "WHERE u.company_id = ? ORDER BY e.id", String.class, company.getId());
+    }
+}
@@ -0,0 +1,60 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.service.CountryCurrencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for IntegrationController.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class IntegrationControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CountryCurrencyService countryCurrencyService;
+    
+    @Test
+    void testGetCountries_RevalidatesWithEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/integration/countries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.countries['United States']").value("USD"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=3600")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        mockMvc.perform(get("/api/integration/countries").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+    
+    @Test
+    void testGetCurrencyRates_RejectsUnknownBaseCurrency() throws Exception {
+        mockMvc.perform(get("/api/integration/currency-rates/XYZ"))
+                .andExpect(status().isBadRequest());
+        
+        mockMvc.perform(get("/api/integration/currency-rates/usd"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baseCurrency").value("USD"))
+                .andExpect(jsonPath("$.rates.EUR").value(0.92));
+    }
+    
+    @Test
+    void testGetDefaultCurrencyForCountry_IsCaseInsensitive() {
+        assertEquals("INR", countryCurrencyService.getDefaultCurrencyForCountry("  india "));
+        assertEquals("EUR", countryCurrencyService.getDefaultCurrencyForCountry("GERMANY"));
+        assertEquals("USD", countryCurrencyService.getDefaultCurrencyForCountry("Atlantis"));
+    }
+}
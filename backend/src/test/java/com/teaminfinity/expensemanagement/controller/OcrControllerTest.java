@@ -0,0 +1,79 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for OcrController.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OcrControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    private AppUser testUser;
+    private final MockMultipartFile receipt =
+            new MockMultipartFile("file", "receipt.jpg", "image/jpeg", new byte[]{1, 2, 3});
+    
+    @BeforeEach
+    void setUp() {
+        Company company = new Company();
+        company.setId(1L);
+        
+        testUser = new AppUser();
+        testUser.setId(1L);
+        testUser.setEmail("test@test.com");
+        testUser.setRole(Role.EMPLOYEE);
+        testUser.setCompany(company);
+    }
+    
+    @Test
+    void testParseReceipt_ReturnsResultAsynchronously() throws Exception {
+        MvcResult pending = mockMvc.perform(multipart("/api/ocr/parse-receipt").file(receipt).with(user(testUser)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").exists())
+                .andExpect(jsonPath("$.vendor").exists());
+    }
+    
+    @Test
+    void testSubmitJob_ReturnsJobAndCanBePolled() throws Exception {
+        MvcResult submitted = mockMvc.perform(multipart("/api/ocr/jobs").file(receipt).with(user(testUser)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.jobId").exists())
+                .andReturn();
+        String location = submitted.getResponse().getHeader("Location");
+        
+        MvcResult polled = mockMvc.perform(get(location).param("waitSeconds", "5").with(user(testUser)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(polled))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.result.category").exists());
+    }
+}
@@ -0,0 +1,111 @@
+package com.teaminfinity.expensemanagement.controller;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.service.ExpenseService;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.HexFormat;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test for ReceiptController: upload, deduplication and ranged download.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ReceiptControllerTest {
+    
+    private static final byte[] RECEIPT = "fake receipt image bytes 0123456789".getBytes(StandardCharsets.UTF_8);
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ExpenseService expenseService;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    private AppUser employee;
+    private AppUser outsider;
+    private String hash;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        employee = fixtures.createUser("employee@receipts.com", Role.EMPLOYEE, fixtures.createCompany("Receipt Corp", false));
+        outsider = fixtures.createUser("outsider@receipts.com", Role.EMPLOYEE, fixtures.createCompany("Other Corp", false));
+        hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(RECEIPT));
+    }
+    
+    @Test
+    void testUpload_DeduplicatesByContentHash() throws Exception {
+        upload().andExpect(jsonPath("$.hash").value(hash))
+                .andExpect(jsonPath("$.sizeBytes").value(RECEIPT.length))
+                .andExpect(jsonPath("$.url").value("/api/receipts/" + hash));
+        
+        upload().andExpect(jsonPath("$.hash").value(hash))
+                .andExpect(jsonPath("$.duplicate").value(true));
+    }
+    
+    @Test
+    void testDownload_ServesRangesOnlyToTheOwningCompany() throws Exception {
+        upload();
+        expenseService.submitExpense(employee, new BigDecimal("12.00"), "USD", "Meals", null,
+                LocalDate.now(), null, hash);
+        
+        MvcResult full = mockMvc.perform(get("/api/receipts/" + hash).with(user(employee)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(full))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(RECEIPT));
+        
+        MvcResult ranged = mockMvc.perform(get("/api/receipts/" + hash).with(user(employee))
+                        .header(HttpHeaders.RANGE, "bytes=5-11"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-11/" + RECEIPT.length))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(ranged))
+                .andExpect(content().string("receipt"));
+        
+        mockMvc.perform(get("/api/receipts/" + hash).with(user(employee))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+        
+        mockMvc.perform(get("/api/receipts/" + hash).with(user(outsider)))
+                .andExpect(status().isNotFound());
+    }
+    
+    private ResultActions upload() throws Exception {
+        return mockMvc.perform(post("/api/receipts").with(user(employee))
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(RECEIPT))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,102 @@
+package com.teaminfinity.expensemanagement.datagen;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The datagen profile against its own H2 database: the generator runs at startup,
+ * and regenerating the same seed must reproduce the same data.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datagen;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "datagen.seed=7",
+        "datagen.companies=3",
+        "datagen.users-per-company=40",
+        "datagen.span-of-control=4",
+        "datagen.expenses=2000",
+        "datagen.batch-size=500",
+        "datagen.exit-when-done=false"
+})
+@ActiveProfiles({"test", "datagen"})
+class SyntheticDataGeneratorTest {
+    
+    private static final String GENERATED_COMPANIES = "SELECT id FROM companies WHERE name LIKE 'Synthetic 7-%'";
+    
+    @Autowired
+    private SyntheticDataGenerator generator;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void testGeneratedAtStartup_ConsistentCountsAndRollups() {
+        assertEquals(3, count("SELECT COUNT(*) FROM companies WHERE id IN (" + GENERATED_COMPANIES + ")"));
+        assertEquals(120, count("SELECT COUNT(*) FROM users WHERE company_id IN (" + GENERATED_COMPANIES + ")"));
+        assertEquals(3, count("SELECT COUNT(*) FROM users WHERE role = 'ADMIN' AND manager_id IS NULL"
+                + " AND company_id IN (" + GENERATED_COMPANIES + ")"));
+        assertEquals(2000, count("SELECT COUNT(*) FROM expenses e JOIN users u ON u.id = e.user_id"
+                + " WHERE u.company_id IN (" + GENERATED_COMPANIES + ")"));
+        
+        // Step counters match the steps, and statuses match the decisions
+        assertEquals(0, count("SELECT COUNT(*) FROM expenses e WHERE e.total_steps <>"
+                + " (SELECT COUNT(*) FROM approval_steps s WHERE s.expense_id = e.id)"));
+        assertEquals(0, count("SELECT COUNT(*) FROM expenses e WHERE e.approved_steps <>"
+                + " (SELECT COUNT(*) FROM approval_steps s WHERE s.expense_id = e.id AND s.decision = 'APPROVED')"));
+        assertEquals(0, count("SELECT COUNT(*) FROM expenses WHERE status = 'APPROVED' AND approved_steps <> total_steps"));
+        // Like live submissions, an expense nobody has to approve stays pending
+        assertTrue(count("SELECT COUNT(*) FROM expenses WHERE total_steps = 0") > 0);
+        assertEquals(0, count("SELECT COUNT(*) FROM expenses WHERE total_steps = 0 AND status <> 'PENDING'"));
+        assertEquals(count("SELECT COUNT(*) FROM expenses WHERE status = 'REJECTED'"),
+                count("SELECT COUNT(*) FROM approval_steps WHERE decision = 'REJECTED'"));
+        // Approvers are users of the expense's own company
+        assertEquals(0, count("SELECT COUNT(*) FROM approval_steps s JOIN expenses e ON e.id = s.expense_id"
+                + " JOIN users u ON u.id = e.user_id JOIN users a ON a.id = s.approver_id"
+                + " WHERE a.company_id <> u.company_id"));
+        
+        assertEquals(2000, count("SELECT COALESCE(SUM(expense_count), 0) FROM expense_rollups"
+                + " WHERE company_id IN (" + GENERATED_COMPANIES + ")"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT (SELECT SUM(total_amount) FROM expense_rollups"
+                + " WHERE company_id IN (" + GENERATED_COMPANIES + ")) - SUM(e.amount) FROM expenses e"
+                + " JOIN users u ON u.id = e.user_id WHERE u.company_id IN (" + GENERATED_COMPANIES + ")",
+                BigDecimal.class).signum());
+        
+        // The sequences continue after the generated IDs
+        assertTrue(count("SELECT nextval('expenses_seq')") > count("SELECT MAX(id) FROM expenses"));
+    }
+    
+    @Test
+    void testGenerate_SameSeedReproducesSameData() {
+        List<Map<String, Object>> before = fingerprint();
+        assertEquals(new SyntheticDataGenerator.Summary(0, 0, 0, 0, 0), generator.generate(),
+                "An existing seed is not generated twice");
+        
+        jdbcTemplate.update("DELETE FROM companies WHERE name LIKE 'Synthetic 7-%'");
+        SyntheticDataGenerator.Summary summary = generator.generate();
+        
+        assertEquals(3, summary.companies());
+        assertEquals(2000, summary.expenses());
+        assertEquals(before, fingerprint());
+    }
+    
+    private List<Map<String, Object>> fingerprint() {
+        return jdbcTemplate.queryForList("SELECT c.name, e.status, COUNT(*) AS expenses, SUM(e.amount) AS amount,"
+                + " SUM(e.total_steps) AS steps, SUM(e.approved_steps) AS approved, MIN(e.expense_date) AS first_date,"
+                + " MAX(e.updated_at) AS last_update"
+                + " FROM expenses e JOIN users u ON u.id = e.user_id JOIN companies c ON c.id = u.company_id"
+                + " WHERE c.name LIKE 'Synthetic 7-%' GROUP BY c.name, e.status ORDER BY c.name, e.status");
+    }
+    
+    private long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.teaminfinity.expensemanagement.migration;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * V7 on a database that already has expenses: the rollups must start out matching
+ * the expenses table, otherwise reports miss them and later status changes drive
+ * buckets negative.
+ */
+class RollupBackfillMigrationTest {
+    
+    @Test
+    void testV7_BackfillsRollupsFromExistingExpenses() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rollup-backfill;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        
+        flyway(dataSource, "6").migrate();
+        // V2 seeded company 1 with four expenses; add a second company and more months
+        jdbcTemplate.update("INSERT INTO companies (name, country, default_currency) VALUES ('Backfill Corp', 'Germany', 'EUR')");
+        Long companyId = jdbcTemplate.queryForObject("SELECT id FROM companies WHERE name = 'Backfill Corp'", Long.class);
+        jdbcTemplate.update("INSERT INTO users (email, password, full_name, role, company_id) "
+                + "VALUES ('backfill@corp.de', 'x', 'Backfill', 'EMPLOYEE', ?)", companyId);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'backfill@corp.de'", Long.class);
+        for (Object[] expense : List.of(
+                new Object[]{"10.00", "2025-01-05", "PENDING"},
+                new Object[]{"20.50", "2025-01-31", "PENDING"},
+                new Object[]{"7.25", "2025-02-01", "PENDING"},
+                new Object[]{"99.99", "2025-01-15", "APPROVED"})) {
+            jdbcTemplate.update("INSERT INTO expenses (user_id, amount, currency, category, expense_date, status) "
+                    + "VALUES (?, ?, 'EUR', 'Meals', CAST(? AS DATE), ?)", userId, new BigDecimal((String) expense[0]),
+                    expense[1], expense[2]);
+        }
+        
+        flyway(dataSource, null).migrate();
+        
+        List<Map<String, Object>> buckets = jdbcTemplate.queryForList("SELECT CAST(expense_month AS VARCHAR) AS bucket_month, "
+                + "status, total_amount, expense_count FROM expense_rollups WHERE company_id = ? "
+                + "ORDER BY expense_month, status", companyId);
+        assertEquals(3, buckets.size());
+        assertBucket(buckets.get(0), "2025-01-01", "APPROVED", "99.99", 1);
+        assertBucket(buckets.get(1), "2025-01-01", "PENDING", "30.50", 2);
+        assertBucket(buckets.get(2), "2025-02-01", "PENDING", "7.25", 1);
+        
+        // Every expense of every company is counted exactly once
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Long.class),
+                jdbcTemplate.queryForObject("SELECT SUM(expense_count) FROM expense_rollups", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT SUM(amount) FROM expenses", BigDecimal.class)
+                .compareTo(jdbcTemplate.queryForObject("SELECT SUM(total_amount) FROM expense_rollups", BigDecimal.class)));
+    }
+    
+    private static Flyway flyway(JdbcDataSource dataSource, String target) {
+        var configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/vendor/h2");
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+    
+    private static void assertBucket(Map<String, Object> bucket, String month, String status, String amount, long count) {
+        assertEquals(month, bucket.get("bucket_month"));
+        assertEquals(status, bucket.get("status"));
+        assertEquals(0, new BigDecimal(amount).compareTo((BigDecimal) bucket.get("total_amount")));
+        assertEquals(count, ((Number) bucket.get("expense_count")).longValue());
+    }
+}
@@ -0,0 +1,241 @@
+package com.teaminfinity.expensemanagement.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.util.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the hot repository queries are served by the indexes designed for them
+ * (V10), by running EXPLAIN on the SQL Hibernate actually generates.
+ * 
+ * Needs PostgreSQL (partial indexes and plans differ on H2), so it only runs when
+ * TEST_POSTGRES_URL points at a scratch database, e.g.
+ * {@code TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/expense_test mvn test}
+ * (credentials from TEST_POSTGRES_USERNAME / TEST_POSTGRES_PASSWORD). Each test seeds
+ * a spread of users, expenses and steps and ANALYZEs them: without statistics the
+ * planner ties between indexes on default selectivities. Sequential and bitmap scans
+ * are disabled for the transaction, so the plans show which index the planner matches
+ * to each query on these small tables, and ordered queries must come out of the index
+ * without a sort step. The test transaction rolls everything back.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TEST_POSTGRES_URL}",
+        "spring.datasource.username=${TEST_POSTGRES_USERNAME:postgres}",
+        "spring.datasource.password=${TEST_POSTGRES_PASSWORD:postgres}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@Transactional
+class RepositoryIndexUsageTest {
+    
+    private static final LocalDateTime CURSOR = LocalDateTime.of(2030, 1, 1, 0, 0);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    
+    @Autowired
+    private ApprovalStepRepository approvalStepRepository;
+    
+    @Autowired
+    private CompanyApprovalRuleRepository approvalRuleRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        seedStatistics();
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+    }
+
+    /**
+     * 200 users with 20 expenses each and one step per expense, one in ten still
+     * pending, as in a production-like mix. ANALYZE counts the transaction's own
+     * inserts, so the statistics exist even though the rows are rolled back.
+     */
+    private void seedStatistics() {
+        Long companyId = jdbcTemplate.queryForObject(
+                "INSERT INTO companies (name, country, default_currency) " +
+                "VALUES ('Index Usage Co', 'India', 'INR') RETURNING id", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO users (email, password, full_name, role, company_id)
+                SELECT 'index-usage-' || g || '@example.com', 'x', 'User ' || g,
+                       CASE WHEN g % 10 = 0 THEN 'MANAGER' ELSE 'EMPLOYEE' END, ?
+                FROM generate_series(1, 200) g""", companyId);
+        jdbcTemplate.update("""
+                INSERT INTO expenses (user_id, amount, currency, category, expense_date, status, created_at, updated_at)
+                SELECT u.id, 100, 'INR', 'Travel', DATE '2029-01-01' + g,
+                       CASE WHEN g % 10 = 0 THEN 'PENDING' WHEN g % 10 = 1 THEN 'REJECTED' ELSE 'APPROVED' END,
+                       TIMESTAMP '2029-01-01' + g * INTERVAL '1 hour', TIMESTAMP '2029-01-01'
+                FROM users u CROSS JOIN generate_series(1, 20) g
+                WHERE u.company_id = ?""", companyId);
+        jdbcTemplate.update("""
+                WITH managers AS (
+                    SELECT id, ROW_NUMBER() OVER (ORDER BY id) - 1 AS n,
+                           COUNT(*) OVER () AS total
+                    FROM users WHERE company_id = ? AND role = 'MANAGER')
+                INSERT INTO approval_steps (expense_id, approver_id, sequence, decision, created_at)
+                SELECT e.id, m.id, 1, e.status, e.created_at
+                FROM expenses e
+                JOIN users u ON u.id = e.user_id
+                JOIN managers m ON m.n = e.id % m.total
+                WHERE u.company_id = ?""", companyId, companyId);
+        jdbcTemplate.update("INSERT INTO company_approval_rules (company_id, rule_type, threshold_percentage, sequence) " +
+                "VALUES (?, 'PERCENTAGE', 60, 1)", companyId);
+        jdbcTemplate.execute("ANALYZE companies, users, expenses, approval_steps, company_approval_rules");
+    }
+    
+    @Test
+    void testPendingInbox_UsesPartialIndexInOrder() {
+        Plan plan = explain(() -> approvalStepRepository.findPendingInboxPage(1L, CURSOR, Long.MAX_VALUE, Limit.of(21)),
+                1L, CURSOR, Long.MAX_VALUE, 21);
+        plan.assertUsesIndex("idx_approval_steps_pending_inbox");
+        plan.assertNotSorted();
+        
+        plan = explain(() -> approvalStepRepository.findPendingApprovalsByApproverId(1L), 1L);
+        plan.assertUsesIndex("idx_approval_steps_pending_inbox");
+        plan.assertNotSorted();
+    }
+    
+    @Test
+    void testPendingByApproverAndCount_UsePartialIndex() {
+        explain(() -> approvalStepRepository.findByApproverIdAndDecision(1L, ApprovalDecision.PENDING),
+                1L, ApprovalDecision.PENDING.name())
+                .assertUsesIndex("idx_approval_steps_pending_inbox");
+        explain(() -> approvalStepRepository.countByDecision(ApprovalDecision.PENDING),
+                ApprovalDecision.PENDING.name())
+                .assertUsesIndex("idx_approval_steps_pending_inbox");
+    }
+    
+    @Test
+    void testStepsOfExpense_UseExpenseSequenceIndexInOrder() {
+        Plan plan = explain(() -> approvalStepRepository.findByExpenseIdOrderBySequenceAsc(1L), 1L);
+        plan.assertUsesIndex("idx_approval_steps_expense_sequence");
+        plan.assertNotSorted();
+        
+        plan = explain(() -> approvalStepRepository.findWithApproverByExpenseId(1L), 1L);
+        plan.assertUsesIndex("idx_approval_steps_expense_sequence");
+        plan.assertNotSorted();
+    }
+    
+    @Test
+    void testExpensesOfUser_UseUserIndexes() {
+        explain(() -> expenseRepository.findByUserIdAndStatus(1L, ExpenseStatus.PENDING),
+                1L, ExpenseStatus.PENDING.name())
+                .assertUsesIndex("idx_expenses_user_status_created");
+        
+        Plan plan = explain(() -> expenseRepository.findResponsePageByUserId(1L, CURSOR, Long.MAX_VALUE, Limit.of(21)),
+                1L, CURSOR, Long.MAX_VALUE, 21);
+        plan.assertUsesIndex("idx_expenses_user_created");
+        plan.assertNotSorted();
+        
+        plan = explain(() -> expenseRepository.findResponsePageByUserIdAndStatus(
+                        1L, ExpenseStatus.PENDING, CURSOR, Long.MAX_VALUE, Limit.of(21)),
+                1L, ExpenseStatus.PENDING.name(), CURSOR, Long.MAX_VALUE, 21);
+        plan.assertUsesIndex("idx_expenses_user_status_created");
+        plan.assertNotSorted();
+    }
+    
+    @Test
+    void testCountByStatus_UsesStatusIndex() {
+        explain(() -> expenseRepository.countByStatus(ExpenseStatus.PENDING), ExpenseStatus.PENDING.name())
+                .assertUsesIndex("idx_expenses_status_created");
+    }
+    
+    @Test
+    void testRulesAndUsersOfCompany_UseCompanyIndexes() {
+        Plan plan = explain(() -> approvalRuleRepository.findByCompanyIdAndActiveOrderBySequenceAsc(1L, true), 1L, true);
+        plan.assertUsesIndex("idx_company_approval_rules_company_active_sequence");
+        plan.assertNotSorted();
+        
+        explain(() -> userRepository.findByCompanyIdAndRole(1L, Role.MANAGER), 1L, Role.MANAGER.name())
+                .assertUsesIndex("idx_users_company_role");
+    }
+    
+    @Test
+    void testReplacedIndexes_AreGone() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class);
+        for (String dropped : List.of("idx_expenses_status", "idx_expenses_created_at", "idx_approval_steps_decision",
+                "idx_approval_steps_expense_id", "idx_approval_steps_approver_decision_created",
+                "idx_company_approval_rules_active", "idx_company_approval_rules_company_id",
+                "idx_users_company_id", "idx_users_email")) {
+            assertFalse(indexes.contains(dropped), dropped);
+        }
+    }
+    
+    /**
+     * Run a repository method, capture its single SQL statement and EXPLAIN it with
+     * the given bind values (in placeholder order, as Hibernate binds them).
+     */
+    private Plan explain(Runnable repositoryCall, Object... parameters) {
+        List<String> statements;
+        try (SqlStatementRecorder.Recording recording = SqlStatementRecorder.start()) {
+            repositoryCall.run();
+            statements = recording.statements();
+        }
+        assertEquals(1, statements.size(), () -> "Expected one statement: " + statements);
+        String sql = statements.get(0);
+        assertEquals(sql.chars().filter(c -> c == '?').count(), parameters.length, () -> "Bind values for " + sql);
+        
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, parameters);
+        try {
+            return new Plan(sql, objectMapper.readTree(json).get(0).get("Plan"));
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + json, e);
+        }
+    }
+    
+    private record Plan(String sql, JsonNode root) {
+        
+        void assertUsesIndex(String index) {
+            assertTrue(values("Index Name").contains(index),
+                    () -> "Expected " + index + " for " + sql + "\n" + root.toPrettyString());
+        }
+        
+        void assertNotSorted() {
+            List<String> nodeTypes = values("Node Type");
+            assertFalse(nodeTypes.contains("Sort") || nodeTypes.contains("Incremental Sort"),
+                    () -> "Unexpected sort for " + sql + "\n" + root.toPrettyString());
+        }
+        
+        private List<String> values(String field) {
+            List<String> values = new ArrayList<>();
+            collect(root, field, values);
+            return values;
+        }
+        
+        private static void collect(JsonNode node, String field, List<String> values) {
+            if (node.has(field)) {
+                values.add(node.get(field).asText());
+            }
+            if (node.has("Plans")) {
+                node.get("Plans").forEach(child -> collect(child, field, values));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.teaminfinity.expensemanagement.security;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.repository.CompanyRepository;
+import com.teaminfinity.expensemanagement.repository.UserRepository;
+import com.teaminfinity.expensemanagement.service.UserService;
+import com.teaminfinity.expensemanagement.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test for stateless JWT authentication.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class JwtAuthenticationFilterTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private CompanyRepository companyRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UserService userService;
+    
+    private AppUser employee;
+    private String token;
+    
+    @BeforeEach
+    void setUp() {
+        Company company = new Company();
+        company.setName("Stateless Corp");
+        company.setCountry("India");
+        company.setDefaultCurrency("INR");
+        company = companyRepository.save(company);
+        
+        employee = new AppUser();
+        employee.setEmail("employee@stateless.com");
+        employee.setPassword("password");
+        employee.setFullName("Stateless Employee");
+        employee.setRole(Role.EMPLOYEE);
+        employee.setCompany(company);
+        employee = userRepository.saveAndFlush(employee);
+        
+        token = jwtUtil.generateToken(employee);
+    }
+    
+    @Test
+    void testAuthenticatedRequest_DoesNotLoadUser() throws Exception {
+        // First request populates the user-status cache
+        mockMvc.perform(get("/api/expenses/my").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/expenses/my").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+        
+        // Only the expense page query
+        List<String> statements = SqlStatementCounter.statements();
+        assertEquals(1, statements.size(), () -> "Unexpected statements: " + statements);
+    }
+    
+    @Test
+    void testDisabledUser_IsRejected() throws Exception {
+        mockMvc.perform(get("/api/expenses/my").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        
+        userService.setUserEnabled(employee.getCompany().getId(), employee.getId(), false);
+        
+        mockMvc.perform(get("/api/expenses/my").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    void testCurrentUser_LoadsFullProfile() throws Exception {
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullName").value("Stateless Employee"))
+                .andExpect(jsonPath("$.companyName").value("Stateless Corp"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.teaminfinity.expensemanagement.security;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for JwtUtil.
+ */
+class JwtUtilTest {
+    
+    private JwtUtil jwtUtil;
+    private AppUser user;
+    
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(86_400_000L, 2);
+        
+        Company company = new Company();
+        company.setId(7L);
+        
+        user = new AppUser();
+        user.setId(42L);
+        user.setEmail("employee@test.com");
+        user.setRole(Role.MANAGER);
+        user.setCompany(company);
+    }
+    
+    @Test
+    void testParseToken_CarriesPrincipalClaimsAndIsCached() {
+        String token = jwtUtil.generateToken(user);
+        
+        Claims claims = jwtUtil.parseToken(token);
+        assertEquals("employee@test.com", claims.getSubject());
+        assertEquals(42, ((Number) claims.get(JwtUtil.CLAIM_USER_ID)).intValue());
+        assertEquals("MANAGER", claims.get(JwtUtil.CLAIM_ROLE));
+        assertEquals(7, ((Number) claims.get(JwtUtil.CLAIM_COMPANY_ID)).intValue());
+        
+        // Repeat parses are served from the verified-token cache
+        assertSame(claims, jwtUtil.parseToken(token));
+        assertTrue(jwtUtil.validateToken(token, user));
+    }
+    
+    @Test
+    void testParseToken_RejectsTamperedToken() {
+        String token = jwtUtil.generateToken(user);
+        jwtUtil.parseToken(token);
+        
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(SignatureException.class, () -> jwtUtil.parseToken(tampered));
+    }
+    
+    @Test
+    void testParseToken_RejectsExpiredToken() {
+        JwtUtil expiring = newJwtUtil(-1_000L, 2);
+        String token = expiring.generateToken(user);
+        
+        assertThrows(ExpiredJwtException.class, () -> expiring.parseToken(token));
+        assertEquals(0, expiring.verifiedCacheSize());
+    }
+    
+    @Test
+    void testParseToken_CacheIsBounded() {
+        for (long id = 1; id <= 5; id++) {
+            user.setId(id);
+            jwtUtil.parseToken(jwtUtil.generateToken(user));
+            assertTrue(jwtUtil.verifiedCacheSize() <= 2);
+        }
+    }
+    
+    @Test
+    void testParseToken_CacheSizeZeroVerifiesEveryTime() {
+        JwtUtil uncached = newJwtUtil(60_000L, 0);
+        String token = uncached.generateToken(user);
+        
+        assertEquals("employee@test.com", uncached.parseToken(token).getSubject());
+        assertEquals(0, uncached.verifiedCacheSize());
+    }
+    
+    private static JwtUtil newJwtUtil(long expiration, int cacheSize) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", "test-secret-key-that-is-at-least-32-bytes");
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        ReflectionTestUtils.setField(util, "verifiedCacheSize", cacheSize);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,205 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.dto.report.SpendSummaryResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.ApprovalStep;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.CompanyApprovalRule;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import com.teaminfinity.expensemanagement.enums.ApprovalRuleType;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.repository.ApprovalStepRepository;
+import com.teaminfinity.expensemanagement.repository.CompanyApprovalRuleRepository;
+import com.teaminfinity.expensemanagement.repository.ExpenseRepository;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent approval decisions on one expense. Not transactional: each decision
+ * must commit in its own transaction for the races to be real, so the test data is
+ * committed and removed again afterwards.
+ */
+@SpringBootTest
+class ApprovalConcurrencyTest {
+    
+    private static final int APPROVERS = 4;
+    private static final int DECISIONS_PER_STEP = 2;
+    
+    @Autowired
+    private ApprovalService approvalService;
+    
+    @Autowired
+    private ExpenseService expenseService;
+    
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private CompanyApprovalRuleRepository approvalRuleRepository;
+    
+    @Autowired
+    private ApprovalStepRepository approvalStepRepository;
+    
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private Company company;
+    private Expense expense;
+    private List<ApprovalStep> steps;
+    
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            company = fixtures.createCompany("Race Corp " + suffix, false);
+            
+            for (int i = 1; i <= APPROVERS; i++) {
+                AppUser approver = fixtures.createUser("approver" + i + "-" + suffix + "@race.com", Role.ADMIN, company);
+                CompanyApprovalRule rule = new CompanyApprovalRule();
+                rule.setCompany(company);
+                rule.setRuleType(ApprovalRuleType.SPECIFIC_APPROVER);
+                rule.setSpecificApprover(approver);
+                rule.setSequence(i);
+                approvalRuleRepository.save(rule);
+            }
+            AppUser employee = fixtures.createUser("employee-" + suffix + "@race.com", Role.EMPLOYEE, company);
+            
+            expense = expenseService.submitExpense(employee, new BigDecimal("250.00"), "USD", "Travel",
+                    null, LocalDate.of(2025, 5, 20), null, null);
+        });
+        steps = approvalStepRepository.findByExpenseIdOrderBySequenceAsc(expense.getId());
+        assertEquals(APPROVERS, steps.size());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM companies WHERE id = ?", company.getId());
+    }
+    
+    @Test
+    void testConcurrentApprovals_ApproveExactlyOnce() throws Exception {
+        List<Outcome> outcomes = decideConcurrently(step -> ApprovalDecision.APPROVED);
+        
+        assertEquals(APPROVERS, count(outcomes, Outcome.DECIDED));
+        assertEquals(APPROVERS * (DECISIONS_PER_STEP - 1), count(outcomes, Outcome.ALREADY_PROCESSED));
+        
+        Expense reloaded = expenseRepository.findById(expense.getId()).orElseThrow();
+        assertEquals(ExpenseStatus.APPROVED, reloaded.getStatus());
+        assertEquals(APPROVERS, reloaded.getApprovedSteps());
+        assertEquals(APPROVERS, reloaded.getTotalSteps());
+        assertTrue(approvalStepRepository.findByExpenseIdOrderBySequenceAsc(expense.getId()).stream()
+                .allMatch(step -> step.getDecision() == ApprovalDecision.APPROVED));
+        assertEquals(Map.of("APPROVED", 1L), rollupCountsByStatus());
+    }
+    
+    @Test
+    void testConcurrentApprovalsAndRejection_EndRejected() throws Exception {
+        Long rejectingStepId = steps.get(APPROVERS - 1).getId();
+        List<Outcome> outcomes = decideConcurrently(step -> step.getId().equals(rejectingStepId)
+                ? ApprovalDecision.REJECTED
+                : ApprovalDecision.APPROVED);
+        
+        assertEquals(APPROVERS, count(outcomes, Outcome.DECIDED));
+        
+        Expense reloaded = expenseRepository.findById(expense.getId()).orElseThrow();
+        assertEquals(ExpenseStatus.REJECTED, reloaded.getStatus());
+        assertEquals(APPROVERS - 1, reloaded.getApprovedSteps());
+        assertEquals(Map.of("REJECTED", 1L), rollupCountsByStatus());
+    }
+    
+    /**
+     * Let every approver decide their step DECISIONS_PER_STEP times at once (a double
+     * click, or two tabs), all threads released together.
+     */
+    private List<Outcome> decideConcurrently(Function<ApprovalStep, ApprovalDecision> decisionFor)
+            throws InterruptedException, ExecutionException {
+        int threads = APPROVERS * DECISIONS_PER_STEP;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (ApprovalStep step : steps) {
+                ApprovalDecision decision = decisionFor.apply(step);
+                Long approverId = step.getApprover().getId();
+                Callable<Outcome> task = () -> {
+                    start.await();
+                    try {
+                        approvalService.processApproval(step.getId(), decision, null, approverId);
+                        return Outcome.DECIDED;
+                    } catch (RuntimeException e) {
+                        assertEquals("This approval step has already been processed", e.getMessage());
+                        return Outcome.ALREADY_PROCESSED;
+                    }
+                };
+                for (int i = 0; i < DECISIONS_PER_STEP; i++) {
+                    futures.add(executor.submit(task));
+                }
+            }
+            start.countDown();
+            
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } catch (TimeoutException e) {
+            throw new AssertionError("Decisions did not finish", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private Map<String, Long> rollupCountsByStatus() {
+        SpendSummaryResponse summary = expenseRollupService.getSummary(company.getId(), null, null, null, null, "USD");
+        return summary.getBuckets().stream()
+                .filter(bucket -> bucket.getExpenseCount() > 0)
+                .collect(Collectors.groupingBy(SpendSummaryResponse.Bucket::getStatus,
+                        Collectors.summingLong(SpendSummaryResponse.Bucket::getExpenseCount)));
+    }
+    
+    private static long count(List<Outcome> outcomes, Outcome outcome) {
+        return outcomes.stream().filter(o -> o == outcome).count();
+    }
+    
+    private enum Outcome {
+        DECIDED,
+        ALREADY_PROCESSED
+    }
+}
@@ -0,0 +1,79 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.repository.CompanyApprovalRuleRepository;
+import com.teaminfinity.expensemanagement.repository.CompanyRepository;
+import com.teaminfinity.expensemanagement.util.ApprovalEvaluator;
+import com.teaminfinity.expensemanagement.util.CompiledRuleSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ApprovalRuleCache loading and eviction.
+ */
+class ApprovalRuleCacheTest {
+    
+    private static final Long COMPANY_ID = 1L;
+    
+    private CompanyApprovalRuleRepository approvalRuleRepository;
+    private ApprovalRuleCache approvalRuleCache;
+    
+    @BeforeEach
+    void setUp() {
+        Company company = new Company();
+        company.setId(COMPANY_ID);
+        company.setIsManagerApprover(true);
+        
+        CompanyRepository companyRepository = mock(CompanyRepository.class);
+        when(companyRepository.findById(COMPANY_ID)).thenReturn(Optional.of(company));
+        approvalRuleRepository = mock(CompanyApprovalRuleRepository.class);
+        when(approvalRuleRepository.findByCompanyIdAndActiveOrderBySequenceAsc(COMPANY_ID, true)).thenReturn(List.of());
+        
+        approvalRuleCache = new ApprovalRuleCache(companyRepository, approvalRuleRepository, new ApprovalEvaluator());
+        ReflectionTestUtils.setField(approvalRuleCache, "ttl", Duration.ofMinutes(10));
+    }
+    
+    @Test
+    void testGetRuleSet_CachesCompiledRules() {
+        CompiledRuleSet first = approvalRuleCache.getRuleSet(COMPANY_ID);
+        
+        assertSame(first, approvalRuleCache.getRuleSet(COMPANY_ID));
+        verify(approvalRuleRepository, times(1)).findByCompanyIdAndActiveOrderBySequenceAsc(COMPANY_ID, true);
+    }
+    
+    @Test
+    void testGetRuleSet_DoesNotKeepRulesLoadedDuringEviction() {
+        // A rule change commits (and evicts) after the rules were read but before they are cached
+        AtomicBoolean evicted = new AtomicBoolean();
+        when(approvalRuleRepository.findByCompanyIdAndActiveOrderBySequenceAsc(COMPANY_ID, true)).thenAnswer(invocation -> {
+            if (evicted.compareAndSet(false, true)) {
+                approvalRuleCache.evict(COMPANY_ID);
+            }
+            return List.of();
+        });
+        
+        CompiledRuleSet stale = approvalRuleCache.getRuleSet(COMPANY_ID);
+        CompiledRuleSet reloaded = approvalRuleCache.getRuleSet(COMPANY_ID);
+        
+        assertNotSame(stale, reloaded);
+        assertSame(reloaded, approvalRuleCache.getRuleSet(COMPANY_ID));
+        verify(approvalRuleRepository, times(2)).findByCompanyIdAndActiveOrderBySequenceAsc(COMPANY_ID, true);
+    }
+    
+    @Test
+    void testEvict_ForcesReload() {
+        CompiledRuleSet first = approvalRuleCache.getRuleSet(COMPANY_ID);
+        approvalRuleCache.evict(COMPANY_ID);
+        
+        assertNotSame(first, approvalRuleCache.getRuleSet(COMPANY_ID));
+    }
+}
@@ -0,0 +1,199 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.dto.approval.ApprovalStepResponse;
+import com.teaminfinity.expensemanagement.dto.approval.BulkApprovalRequest;
+import com.teaminfinity.expensemanagement.dto.approval.BulkApprovalResponse;
+import com.teaminfinity.expensemanagement.dto.common.CursorPage;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.support.SqlStatementCounter;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import com.teaminfinity.expensemanagement.util.PageCursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for ApprovalService against the H2 test database.
+ */
+@SpringBootTest
+@Transactional
+class ApprovalServiceTest {
+    
+    @Autowired
+    private ApprovalService approvalService;
+    
+    @Autowired
+    private ExpenseService expenseService;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private AppUser manager;
+    private AppUser employee;
+    
+    @BeforeEach
+    void setUp() {
+        Company company = fixtures.createCompany("Inbox Corp", true);
+        
+        manager = fixtures.createUser("manager@inbox.com", Role.MANAGER, company);
+        employee = fixtures.createUser("employee@inbox.com", Role.EMPLOYEE, company, manager);
+    }
+    
+    @Test
+    void testGetPendingApprovals_StatementCountIsConstant() {
+        submitExpenses(1);
+        assertEquals(1, pendingInboxStatements(1));
+        
+        submitExpenses(24);
+        assertEquals(1, pendingInboxStatements(25));
+    }
+    
+    @Test
+    void testGetPendingApprovals_ProjectsInboxFields() {
+        submitExpenses(3);
+        entityManager.flush();
+        entityManager.clear();
+        
+        CursorPage<ApprovalStepResponse> first = approvalService.getPendingApprovalsForUser(
+                manager.getId(), PageCursor.FIRST_PAGE, 2);
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+        
+        ApprovalStepResponse step = first.getItems().get(0);
+        assertEquals(manager.getId(), step.getApproverId());
+        assertEquals("manager@inbox.com", step.getApproverName());
+        assertEquals("PENDING", step.getDecision());
+        assertEquals(0, new BigDecimal("75.00").compareTo(step.getExpenseAmount()));
+        assertEquals("EUR", step.getExpenseCurrency());
+        assertEquals("Meals", step.getExpenseCategory());
+        assertEquals("employee@inbox.com", step.getSubmitterName());
+        
+        CursorPage<ApprovalStepResponse> second = approvalService.getPendingApprovalsForUser(
+                manager.getId(), PageCursor.decode(first.getNextCursor()), 2);
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+    }
+    
+    @Test
+    void testGetPendingApprovals_WalksPagesAcrossCreatedAtTies() {
+        submitExpenses(5);
+        entityManager.flush();
+        
+        // Every step gets the same timestamp, so the id alone orders the pages
+        entityManager.createNativeQuery("UPDATE approval_steps SET created_at = :createdAt WHERE approver_id = :approverId")
+                .setParameter("createdAt", LocalDateTime.of(2024, 3, 15, 9, 0))
+                .setParameter("approverId", manager.getId())
+                .executeUpdate();
+        entityManager.clear();
+        
+        List<Long> walked = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        PageCursor cursor = PageCursor.FIRST_PAGE;
+        while (cursor != null) {
+            CursorPage<ApprovalStepResponse> page = approvalService.getPendingApprovalsForUser(manager.getId(), cursor, 2);
+            page.getItems().forEach(step -> walked.add(step.getId()));
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor() != null ? PageCursor.decode(page.getNextCursor()) : null;
+        }
+        
+        assertEquals(List.of(2, 2, 1), pageSizes);
+        assertEquals(5, walked.stream().distinct().count());
+        assertEquals(walked.stream().sorted(Comparator.reverseOrder()).toList(), walked);
+    }
+    
+    @Test
+    void testBulkApproval_AppliesItemsInBoundedStatements() {
+        submitExpenses(120);
+        AppUser otherManager = fixtures.createUser("other-manager@inbox.com", Role.MANAGER, employee.getCompany());
+        AppUser otherEmployee = fixtures.createUser("other-employee@inbox.com", Role.EMPLOYEE, employee.getCompany(), otherManager);
+        expenseService.submitExpense(otherEmployee, new BigDecimal("10.00"), "EUR", "Meals",
+                null, LocalDate.now(), null, null);
+        entityManager.flush();
+        
+        List<ApprovalStepResponse> inbox = approvalService.getPendingApprovalsForUser(
+                manager.getId(), PageCursor.FIRST_PAGE, 200).getItems();
+        Long foreignStepId = approvalService.getPendingApprovalsForUser(
+                otherManager.getId(), PageCursor.FIRST_PAGE, 1).getItems().get(0).getId();
+        
+        List<BulkApprovalRequest.Item> items = new ArrayList<>();
+        for (int i = 0; i < inbox.size(); i++) {
+            items.add(new BulkApprovalRequest.Item(inbox.get(i).getId(),
+                    i == 0 ? ApprovalDecision.REJECTED : ApprovalDecision.APPROVED, null));
+        }
+        items.add(new BulkApprovalRequest.Item(inbox.get(1).getId(), ApprovalDecision.APPROVED, null));
+        items.add(new BulkApprovalRequest.Item(Long.MAX_VALUE, ApprovalDecision.APPROVED, null));
+        items.add(new BulkApprovalRequest.Item(foreignStepId, ApprovalDecision.APPROVED, null));
+        entityManager.clear();
+        
+        SqlStatementCounter.reset();
+        BulkApprovalResponse response = approvalService.processBulkApproval(items, manager.getId());
+        entityManager.flush();
+        List<String> statements = SqlStatementCounter.statements();
+        
+        // 1 select of the steps with their expenses + 1 batched step update + 1 batched expense
+        // update + 5 rollup statements (PENDING bucket updated; APPROVED and REJECTED created),
+        // however many items the request has
+        assertEquals(8, statements.size(), () -> "Unexpected statements: " + statements);
+        
+        assertEquals(120, response.getSucceeded());
+        assertEquals(3, response.getFailed());
+        assertEquals(items.size(), response.getResults().size());
+        assertEquals("REJECTED", response.getResults().get(0).getDecision());
+        assertEquals("Step appears more than once in the request", response.getResults().get(120).getError());
+        assertEquals("Approval step not found", response.getResults().get(121).getError());
+        assertEquals("User is not authorized to approve this step", response.getResults().get(122).getError());
+        
+        entityManager.clear();
+        Expense rejected = entityManager.find(Expense.class, response.getResults().get(0).getExpenseId());
+        Expense approved = entityManager.find(Expense.class, response.getResults().get(1).getExpenseId());
+        assertEquals(ExpenseStatus.REJECTED, rejected.getStatus());
+        assertEquals(ExpenseStatus.APPROVED, approved.getStatus());
+        assertEquals(1, approved.getApprovedSteps());
+        assertTrue(approvalService.getPendingApprovalsForUser(manager.getId(), PageCursor.FIRST_PAGE, 10)
+                .getItems().isEmpty());
+    }
+    
+    /**
+     * Load one inbox page from a cold persistence context and return the number of statements it cost.
+     */
+    private int pendingInboxStatements(int expectedRows) {
+        entityManager.flush();
+        entityManager.clear();
+        
+        SqlStatementCounter.reset();
+        CursorPage<ApprovalStepResponse> page = approvalService.getPendingApprovalsForUser(
+                manager.getId(), PageCursor.FIRST_PAGE, 50);
+        List<String> statements = SqlStatementCounter.statements();
+        
+        assertEquals(expectedRows, page.getItems().size());
+        page.getItems().forEach(step -> assertEquals("employee@inbox.com", step.getSubmitterName()));
+        return statements.size();
+    }
+    
+    private void submitExpenses(int count) {
+        for (int i = 0; i < count; i++) {
+            expenseService.submitExpense(employee, new BigDecimal("75.00"), "EUR", "Meals",
+                    "Client lunch", LocalDate.now(), null, null);
+        }
+    }
+}
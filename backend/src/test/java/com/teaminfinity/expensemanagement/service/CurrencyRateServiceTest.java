@@ -0,0 +1,245 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.teaminfinity.expensemanagement.config.RestTemplateConfig;
+import com.teaminfinity.expensemanagement.util.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CurrencyRateService rate cache against a local stub rate provider.
+ */
+class CurrencyRateServiceTest {
+    
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String eurRate = "0.92";
+    private volatile int status = 200;
+    private volatile long delayMillis;
+    
+    private CircuitBreaker circuitBreaker;
+    private CurrencyRateService currencyRateService;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/latest", exchange -> {
+            requests.incrementAndGet();
+            sleep(delayMillis);
+            byte[] body = ("{\"base\":\"USD\",\"rates\":{\"USD\":1,\"EUR\":" + eurRate + "}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        
+        RestTemplate restTemplate = new RestTemplateConfig().restTemplate(new RestTemplateBuilder(), false,
+                Duration.ofSeconds(1), Duration.ofMillis(500), 20);
+        circuitBreaker = new CircuitBreaker("test-rates", 3, Duration.ofMillis(200), RestTemplateConfig::isProviderFailure);
+        currencyRateService = new CurrencyRateService(restTemplate, new SyncTaskExecutor(), circuitBreaker);
+        ReflectionTestUtils.setField(currencyRateService, "externalApiEnabled", true);
+        ReflectionTestUtils.setField(currencyRateService, "currencyRatesApiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/latest");
+        ReflectionTestUtils.setField(currencyRateService, "cacheTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(currencyRateService, "staleTtl", Duration.ofHours(24));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    void testGetExchangeRates_ServesFreshRatesFromCache() {
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        assertEquals(new BigDecimal("1840.00"),
+                currencyRateService.convertCurrency(new BigDecimal("2000"), "USD", "EUR").setScale(2));
+        
+        assertEquals(1, requests.get());
+        CurrencyRateService.CacheStats stats = currencyRateService.getCacheStats();
+        assertEquals(1, stats.misses());
+        assertEquals(2, stats.hits());
+    }
+    
+    @Test
+    void testGetExchangeRates_ConcurrentMissesShareOneFetch() throws Exception {
+        delayMillis = 300;
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Map<String, BigDecimal>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return currencyRateService.getExchangeRates("USD");
+                }));
+            }
+            start.countDown();
+            
+            for (Future<Map<String, BigDecimal>> result : results) {
+                assertEquals(new BigDecimal("0.92"), result.get().get("EUR"));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        assertEquals(1, requests.get());
+    }
+    
+    @Test
+    void testGetExchangeRates_ServesStaleRatesWhileRevalidating() {
+        ReflectionTestUtils.setField(currencyRateService, "cacheTtl", Duration.ZERO);
+        currencyRateService.getExchangeRates("USD");
+        
+        eurRate = "0.95";
+        // Expired entry is returned as-is; the refresh runs on the (synchronous) executor
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        assertEquals(new BigDecimal("0.95"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        
+        assertEquals(3, requests.get());
+        CurrencyRateService.CacheStats stats = currencyRateService.getCacheStats();
+        assertEquals(2, stats.staleHits());
+        assertEquals(2, stats.refreshes());
+    }
+    
+    @Test
+    void testGetExchangeRates_KeepsLastRatesWhenProviderFails() {
+        ReflectionTestUtils.setField(currencyRateService, "cacheTtl", Duration.ZERO);
+        ReflectionTestUtils.setField(currencyRateService, "staleTtl", Duration.ZERO);
+        currencyRateService.getExchangeRates("USD");
+        
+        status = 503;
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        assertEquals(1, currencyRateService.getCacheStats().fetchFailures());
+    }
+    
+    @Test
+    void testGetExchangeRates_ReadTimeoutFallsBackToMockRates() {
+        delayMillis = 1500;
+        long start = System.nanoTime();
+        
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(1200)) < 0);
+        assertEquals(1, currencyRateService.getCacheStats().fetchFailures());
+    }
+    
+    @Test
+    void testGetExchangeRates_MockRatesAreUnmodifiable() {
+        ReflectionTestUtils.setField(currencyRateService, "externalApiEnabled", false);
+        
+        for (String base : new String[]{"USD", "EUR"}) {
+            Map<String, BigDecimal> rates = currencyRateService.getExchangeRates(base);
+            assertThrows(UnsupportedOperationException.class, () -> rates.put("EUR", BigDecimal.TEN));
+        }
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+    }
+    
+    @Test
+    void testGetExchangeRates_CircuitOpensOnFailuresAndRecovers() {
+        status = 503;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        }
+        
+        // The provider is called until the circuit opens; later misses go straight to the fallback
+        assertEquals(3, requests.get());
+        CircuitBreaker.Stats stats = circuitBreaker.getStats();
+        assertEquals(CircuitBreaker.State.OPEN, stats.state());
+        assertEquals(3, stats.failures());
+        assertEquals(2, stats.rejected());
+        assertEquals(1, stats.opened());
+        
+        status = 200;
+        eurRate = "0.95";
+        sleep(250);
+        assertEquals(new BigDecimal("0.95"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        assertEquals(4, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+    
+    @Test
+    void testGetExchangeRates_RejectsUnknownCurrencyWithoutCallingProvider() {
+        for (String base : new String[]{"XYZ", "usd", "", "US/D", null}) {
+            assertThrows(ResponseStatusException.class, () -> currencyRateService.getExchangeRates(base));
+            assertTrue(currencyRateService.fetchProviderRates(base).isEmpty());
+        }
+        
+        assertEquals(0, requests.get());
+        assertEquals(0, circuitBreaker.getStats().calls());
+    }
+    
+    @Test
+    void testGetExchangeRates_ClientErrorsDoNotOpenCircuit() {
+        // e.g. a valid ISO code the provider does not support
+        status = 404;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(currencyRateService.fetchProviderRates("XAU").isEmpty());
+        }
+        
+        assertEquals(5, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getStats().failures());
+        
+        status = 200;
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        assertEquals(6, requests.get());
+    }
+    
+    @Test
+    void testFetchProviderRates_NeverFallsBack() {
+        assertEquals(new BigDecimal("0.92"), currencyRateService.fetchProviderRates("USD").orElseThrow().get("EUR"));
+        
+        // Failing provider: no cached or mock rates, even though a cached entry exists
+        status = 503;
+        assertTrue(currencyRateService.fetchProviderRates("USD").isEmpty());
+        assertTrue(currencyRateService.fetchProviderRates("USD").isEmpty());
+        assertTrue(currencyRateService.fetchProviderRates("USD").isEmpty());
+        // Open circuit: not attempted
+        assertTrue(currencyRateService.fetchProviderRates("USD").isEmpty());
+        assertEquals(4, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        
+        ReflectionTestUtils.setField(currencyRateService, "externalApiEnabled", false);
+        assertTrue(currencyRateService.fetchProviderRates("USD").isEmpty());
+    }
+    
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
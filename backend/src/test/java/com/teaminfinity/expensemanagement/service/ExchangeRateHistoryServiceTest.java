@@ -0,0 +1,123 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.entity.CurrencyRate;
+import com.teaminfinity.expensemanagement.repository.CurrencyRateRepository;
+import com.teaminfinity.expensemanagement.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Integration test for date-based currency conversion from persisted rate snapshots.
+ */
+@SpringBootTest
+@Transactional
+class ExchangeRateHistoryServiceTest {
+    
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate JUNE = LocalDate.of(2024, 6, 1);
+    
+    @Autowired
+    private ExchangeRateHistoryService exchangeRateHistoryService;
+    
+    @Autowired
+    private CurrencyRateRepository currencyRateRepository;
+    
+    @SpyBean
+    private CurrencyRateService currencyRateService;
+    
+    @BeforeEach
+    void setUp() {
+        saveRate(JANUARY, "EUR", "0.80");
+        saveRate(JANUARY, "INR", "80.00");
+        saveRate(JUNE, "EUR", "0.50");
+        saveRate(JUNE, "INR", "85.00");
+        currencyRateRepository.flush();
+        
+        exchangeRateHistoryService.reload();
+    }
+    
+    @Test
+    void testConvert_UsesRateInEffectOnDate() {
+        // Between snapshots: January rates (USD->EUR 0.80)
+        assertAmount("80.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "USD", "EUR", LocalDate.of(2024, 3, 15)));
+        // On a snapshot day: that day's rates
+        assertAmount("50.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "USD", "EUR", JUNE));
+        // Before history starts: earliest snapshot
+        assertAmount("80.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "USD", "EUR", LocalDate.of(2023, 5, 1)));
+    }
+    
+    @Test
+    void testConvert_DerivesCrossRatesThroughBase() {
+        // EUR->INR in January = 80.00 / 0.80
+        assertAmount("10000.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "EUR", "INR", LocalDate.of(2024, 2, 1)));
+    }
+    
+    @Test
+    void testConvert_DoesNotQueryDatabase() {
+        SqlStatementCounter.reset();
+        for (int day = 0; day < 365; day++) {
+            exchangeRateHistoryService.convert(new BigDecimal("10.00"), "EUR", "INR", JANUARY.plusDays(day));
+        }
+        assertEquals(0, SqlStatementCounter.count());
+    }
+    
+    @Test
+    void testTakeSnapshot_ReplacesSameDaySnapshot() {
+        doReturn(Optional.of(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.92"))))
+                .when(currencyRateService).fetchProviderRates("USD");
+        
+        assertTrue(exchangeRateHistoryService.takeSnapshot(JUNE));
+        currencyRateRepository.flush();
+        
+        assertAmount("92.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "USD", "EUR", JUNE));
+        assertEquals(1, currencyRateRepository.findByBaseCurrencyOrderByRateDateAsc("USD").stream()
+                .filter(r -> r.getRateDate().equals(JUNE) && r.getQuoteCurrency().equals("EUR"))
+                .count());
+        
+        exchangeRateHistoryService.reload();
+        assertAmount("92.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "USD", "EUR", JUNE));
+    }
+    
+    @Test
+    void testTakeSnapshot_StoresNothingWhenProviderRatesUnavailable() {
+        // Test profile disables the external API, so rate lookups fall back to mock rates
+        assertEquals(new BigDecimal("0.92"), currencyRateService.getExchangeRates("USD").get("EUR"));
+        long rowsBefore = currencyRateRepository.count();
+        
+        assertFalse(exchangeRateHistoryService.takeSnapshot(JUNE));
+        currencyRateRepository.flush();
+        
+        assertEquals(rowsBefore, currencyRateRepository.count());
+        assertAmount("50.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "USD", "EUR", JUNE));
+        exchangeRateHistoryService.reload();
+        assertAmount("50.00", exchangeRateHistoryService.convert(
+                new BigDecimal("100.00"), "USD", "EUR", JUNE));
+    }
+    
+    private void saveRate(LocalDate date, String quoteCurrency, String rate) {
+        currencyRateRepository.save(new CurrencyRate(null, date, "USD", quoteCurrency, new BigDecimal(rate), null));
+    }
+    
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "Expected " + expected + " but was " + actual);
+    }
+}
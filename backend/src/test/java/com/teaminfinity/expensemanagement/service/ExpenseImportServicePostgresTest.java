@@ -0,0 +1,20 @@
+package com.teaminfinity.expensemanagement.service;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the bulk import tests against PostgreSQL, whose JDBC driver returns generated
+ * keys differently from H2. Only runs when TEST_POSTGRES_URL points at a scratch
+ * database (see RepositoryIndexUsageTest).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TEST_POSTGRES_URL}",
+        "spring.datasource.username=${TEST_POSTGRES_USERNAME:postgres}",
+        "spring.datasource.password=${TEST_POSTGRES_PASSWORD:postgres}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class ExpenseImportServicePostgresTest extends ExpenseImportServiceTest {
+}
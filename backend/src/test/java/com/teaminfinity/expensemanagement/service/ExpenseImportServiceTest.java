@@ -0,0 +1,187 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseImportResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import com.teaminfinity.expensemanagement.util.ExpenseImportReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for bulk expense import: per-row errors, chunk rollback and
+ * approval steps linked to the generated expense ids.
+ *
+ * Not transactional, like the import endpoint: each chunk commits on its own, and
+ * the test data is removed after each test. {@link ExpenseImportServicePostgresTest}
+ * runs the same tests against PostgreSQL.
+ */
+@SpringBootTest
+class ExpenseImportServiceTest {
+    
+    private static final String HEADER = "user_email,amount,currency,category,description,expense_date,status\n";
+    
+    @Autowired
+    private ExpenseImportService expenseImportService;
+    
+    @Autowired
+    private ApprovalRuleCache approvalRuleCache;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Company company;
+    private Company otherCompany;
+    private AppUser alice;
+    private AppUser bob;
+    private AppUser cfo;
+    
+    @BeforeEach
+    void setUp() {
+        company = fixtures.createCompany("Import Corp", true);
+        otherCompany = fixtures.createCompany("Other Import Corp", false);
+        cfo = fixtures.createUser("cfo@import.com", Role.ADMIN, company);
+        alice = fixtures.createUser("alice@import.com", Role.EMPLOYEE, company,
+                fixtures.createUser("alice.manager@import.com", Role.MANAGER, company));
+        bob = fixtures.createUser("bob@import.com", Role.EMPLOYEE, company,
+                fixtures.createUser("bob.manager@import.com", Role.MANAGER, company));
+        fixtures.createUser("outsider@import.com", Role.EMPLOYEE, otherCompany);
+        
+        // Expenses above 100 also need the CFO, after the manager
+        jdbcTemplate.update("INSERT INTO company_approval_rules (company_id, rule_type, threshold_amount, " +
+                "specific_approver_id, sequence, active) VALUES (?, 'HYBRID', 100, ?, 1, TRUE)",
+                company.getId(), cfo.getId());
+        approvalRuleCache.evict(company.getId());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(expenseImportService, "chunkSize", 500);
+        for (Company created : List.of(company, otherCompany)) {
+            jdbcTemplate.update("DELETE FROM companies WHERE id = ?", created.getId());
+            approvalRuleCache.evict(created.getId());
+        }
+    }
+    
+    @Test
+    void testImport_LinksApprovalStepsToTheirGeneratedExpense() throws IOException {
+        ExpenseImportResponse response = importCsv(HEADER
+                + "alice@import.com,40.00,USD,Meals,Alice small,2024-03-01,\n"
+                + "bob@import.com,250.00,USD,Travel,Bob large,2024-03-02,\n"
+                + "ALICE@import.com,150.00,EUR,Travel,Alice large,2024-03-03,PENDING\n"
+                + "bob@import.com,20.00,USD,Meals,Bob approved,2024-03-04,APPROVED\n");
+        
+        assertEquals(4, response.getTotalRows());
+        assertEquals(4, response.getImportedRows());
+        assertEquals(0, response.getFailedRows());
+        assertEquals(5, response.getApprovalStepsCreated());
+        
+        assertEquals(List.of(alice.getManager().getId()), approvers("Alice small"));
+        assertEquals(List.of(bob.getManager().getId(), cfo.getId()), approvers("Bob large"));
+        assertEquals(List.of(alice.getManager().getId(), cfo.getId()), approvers("Alice large"));
+        assertEquals(List.of(), approvers("Bob approved"));
+        
+        Map<String, Object> large = jdbcTemplate.queryForMap(
+                "SELECT user_id, status, total_steps FROM expenses WHERE description = 'Alice large'");
+        assertEquals(alice.getId(), ((Number) large.get("user_id")).longValue());
+        assertEquals("PENDING", large.get("status"));
+        assertEquals(2, ((Number) large.get("total_steps")).intValue());
+    }
+    
+    @Test
+    void testImport_ReportsRowErrorsAndImportsTheRest() throws IOException {
+        ExpenseImportResponse response = importCsv(HEADER
+                + "alice@import.com,10.00,USD,Meals,ok one,2024-03-01,\n"
+                + ",10.00,USD,Meals,no user,2024-03-01,\n"
+                + "alice@import.com,-5,USD,Meals,negative,2024-03-01,\n"
+                + "outsider@import.com,10.00,USD,Meals,other company,2024-03-01,\n"
+                + "alice@import.com,ten,USD,Meals,bad amount,2024-03-01,\n"
+                + "alice@import.com,10.00,USD,,no category,2024-03-01,\n"
+                + "bob@import.com,10.00,USD,Meals,ok two,2024-03-01,\n");
+        
+        assertEquals(7, response.getTotalRows());
+        assertEquals(2, response.getImportedRows());
+        assertEquals(5, response.getFailedRows());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L),
+                response.getErrors().stream().map(ExpenseImportResponse.RowError::getLine).toList());
+        assertEquals("User email is required", response.getErrors().get(0).getMessage());
+        assertEquals("Amount must be positive", response.getErrors().get(1).getMessage());
+        assertEquals("Unknown user: outsider@import.com", response.getErrors().get(2).getMessage());
+        assertEquals("Category is required", response.getErrors().get(4).getMessage());
+        assertEquals(List.of("ok one", "ok two"), importedDescriptions());
+    }
+    
+    @Test
+    void testImport_RollsBackOnlyTheFailingChunk() throws IOException {
+        ReflectionTestUtils.setField(expenseImportService, "chunkSize", 2);
+        
+        // The second chunk fails in the database (currency is VARCHAR(10))
+        ExpenseImportResponse response = importCsv(HEADER
+                + "alice@import.com,10.00,USD,Meals,chunk1 a,2024-03-01,\n"
+                + "bob@import.com,10.00,USD,Meals,chunk1 b,2024-03-01,\n"
+                + "alice@import.com,10.00,USD,Meals,chunk2 a,2024-03-01,\n"
+                + "bob@import.com,10.00,NOT-A-CURRENCY,Meals,chunk2 b,2024-03-01,\n"
+                + "alice@import.com,10.00,USD,Meals,chunk3 a,2024-03-01,\n");
+        
+        assertEquals(5, response.getTotalRows());
+        assertEquals(3, response.getImportedRows());
+        assertEquals(2, response.getFailedRows());
+        assertEquals(List.of(4L, 5L), response.getErrors().stream().map(ExpenseImportResponse.RowError::getLine).toList());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Chunk rolled back"));
+        assertEquals(List.of("chunk1 a", "chunk1 b", "chunk3 a"), importedDescriptions());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM approval_steps s JOIN expenses e " +
+                "ON e.id = s.expense_id JOIN users u ON u.id = e.user_id WHERE u.company_id = ?",
+                Integer.class, company.getId()));
+    }
+    
+    @Test
+    void testImport_StreamsRowsOutsideTransactions() throws IOException {
+        boolean[] transactionWhileReading = {false};
+        byte[] csv = (HEADER + "alice@import.com,10.00,USD,Meals,streamed,2024-03-01,\n").getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream body = new ByteArrayInputStream(csv) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                transactionWhileReading[0] |= TransactionSynchronizationManager.isActualTransactionActive();
+                return super.read(buffer, offset, length);
+            }
+        };
+        
+        ExpenseImportResponse response = expenseImportService.importExpenses(company.getId(), ExpenseImportReader.csv(body));
+        
+        assertEquals(1, response.getImportedRows());
+        assertFalse(transactionWhileReading[0]);
+    }
+    
+    private ExpenseImportResponse importCsv(String csv) throws IOException {
+        return expenseImportService.importExpenses(company.getId(),
+                ExpenseImportReader.csv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+    
+    private List<Long> approvers(String description) {
+        return jdbcTemplate.queryForList("SELECT s.approver_id FROM approval_steps s JOIN expenses e " +
+                "ON e.id = s.expense_id WHERE e.description = ? ORDER BY s.sequence", Long.class, description);
+    }
+    
+    private List<String> importedDescriptions() {
+        return jdbcTemplate.queryForList("SELECT e.description FROM expenses e JOIN users u ON u.id = e.user_id " +
+                "WHERE u.company_id = ? ORDER BY e.id", String.class, company.getId());
+    }
+}
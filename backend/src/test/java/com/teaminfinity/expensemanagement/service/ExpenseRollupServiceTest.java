@@ -0,0 +1,173 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.dto.report.RollupRebuildResponse;
+import com.teaminfinity.expensemanagement.dto.report.SpendSummaryResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.ApprovalStep;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.CurrencyRate;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ApprovalDecision;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.repository.ApprovalStepRepository;
+import com.teaminfinity.expensemanagement.repository.CurrencyRateRepository;
+import com.teaminfinity.expensemanagement.support.SqlStatementCounter;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the incrementally maintained spend rollups.
+ */
+@SpringBootTest
+@Transactional
+class ExpenseRollupServiceTest {
+    
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 14);
+    private static final LocalDate APRIL = LocalDate.of(2025, 4, 2);
+    
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    
+    @Autowired
+    private ExpenseService expenseService;
+    
+    @Autowired
+    private ApprovalService approvalService;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private ApprovalStepRepository approvalStepRepository;
+    
+    @Autowired
+    private CurrencyRateRepository currencyRateRepository;
+    
+    @Autowired
+    private ExchangeRateHistoryService exchangeRateHistoryService;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private Company company;
+    private AppUser manager;
+    private AppUser employee;
+    
+    @BeforeEach
+    void setUp() {
+        company = fixtures.createCompany("Rollup Corp", true);
+        
+        manager = fixtures.createUser("manager@rollup.com", Role.MANAGER, company);
+        employee = fixtures.createUser("employee@rollup.com", Role.EMPLOYEE, company, manager);
+        entityManager.flush();
+    }
+    
+    @Test
+    void testSummary_TracksSubmissionsAndStatusChanges() {
+        submit("40.00", "USD", "Travel", MARCH);
+        submit("60.00", "USD", "Travel", MARCH);
+        submit("25.50", "EUR", "Meals", APRIL);
+        Expense approved = submit("10.00", "USD", "Travel", MARCH);
+        
+        ApprovalStep step = approvalStepRepository.findByExpenseIdOrderBySequenceAsc(approved.getId()).get(0);
+        approvalService.processApproval(step.getId(), ApprovalDecision.APPROVED, null, manager.getId());
+        entityManager.flush();
+        entityManager.clear();
+        
+        SqlStatementCounter.reset();
+        SpendSummaryResponse summary = expenseRollupService.getSummary(company.getId(), null, null, null, null, "USD");
+        assertEquals(1, SqlStatementCounter.count());
+        
+        assertEquals(3, summary.getBuckets().size());
+        assertEquals(4, summary.getExpenseCount());
+        assertEquals(0, new BigDecimal("110.00").compareTo(summary.getTotalsByCurrency().get("USD")));
+        assertEquals(0, new BigDecimal("25.50").compareTo(summary.getTotalsByCurrency().get("EUR")));
+        
+        SpendSummaryResponse.Bucket pendingTravel = summary.getBuckets().stream()
+                .filter(b -> b.getCategory().equals("Travel") && b.getStatus().equals("PENDING"))
+                .findFirst().orElseThrow();
+        assertEquals(YearMonth.of(2025, 3), pendingTravel.getMonth());
+        assertEquals(2, pendingTravel.getExpenseCount());
+        assertEquals(0, new BigDecimal("100.00").compareTo(pendingTravel.getTotalAmount()));
+        
+        SpendSummaryResponse approvedOnly = expenseRollupService.getSummary(
+                company.getId(), YearMonth.of(2025, 3), YearMonth.of(2025, 3), ExpenseStatus.APPROVED, null, "USD");
+        assertEquals(1, approvedOnly.getBuckets().size());
+        assertEquals(0, new BigDecimal("10.00").compareTo(approvedOnly.getBuckets().get(0).getTotalAmount()));
+    }
+    
+    @Test
+    void testRebuild_MatchesIncrementalTotalsAndRepairsDrift() {
+        submit("40.00", "USD", "Travel", MARCH);
+        submit("25.50", "EUR", "Meals", APRIL);
+        entityManager.flush();
+        
+        RollupRebuildResponse clean = expenseRollupService.rebuild(company.getId());
+        assertEquals(2, clean.getBuckets());
+        assertEquals(2, clean.getExpenses());
+        assertEquals(0, clean.getCorrectedBuckets());
+        
+        entityManager.createNativeQuery("UPDATE expense_rollups SET total_amount = 1 WHERE currency = 'EUR'")
+                .executeUpdate();
+        
+        RollupRebuildResponse repaired = expenseRollupService.rebuild(company.getId());
+        assertEquals(1, repaired.getCorrectedBuckets());
+        assertEquals(0, new BigDecimal("25.50").compareTo(expenseRollupService
+                .getSummary(company.getId(), null, null, null, "EUR", "USD").getTotalsByCurrency().get("EUR")));
+    }
+    
+    @Test
+    void testSummary_ConvertsEachMonthAtItsHistoricalRate() {
+        // USD->EUR was 0.80 through March and 0.50 from April
+        saveRate(LocalDate.of(2025, 3, 1), "0.80");
+        saveRate(LocalDate.of(2025, 4, 1), "0.50");
+        currencyRateRepository.flush();
+        exchangeRateHistoryService.reload();
+        
+        submit("40.00", "USD", "Travel", MARCH);
+        submit("24.00", "EUR", "Meals", MARCH);
+        submit("25.00", "EUR", "Meals", APRIL);
+        submit("99.00", "ZZZ", "Meals", APRIL);
+        entityManager.flush();
+        entityManager.clear();
+        
+        // No report currency: the company's currency
+        SpendSummaryResponse inUsd = expenseRollupService.getSummary(company.getId(), null, null, null, null, null);
+        assertEquals("USD", inUsd.getReportCurrency());
+        assertAmount("120.00", inUsd.getConvertedTotal()); // 40 + 24 / 0.80 + 25 / 0.50
+        assertEquals(Set.of("ZZZ"), inUsd.getUnconvertedCurrencies());
+        
+        SpendSummaryResponse inEur = expenseRollupService.getSummary(company.getId(), null, null, null, null, "EUR");
+        assertAmount("81.00", inEur.getConvertedTotal()); // 40 * 0.80 + 24 + 25
+        
+        assertThrows(ResponseStatusException.class, () ->
+                expenseRollupService.getSummary(company.getId(), null, null, null, null, "XYZ"));
+    }
+    
+    private Expense submit(String amount, String currency, String category, LocalDate date) {
+        return expenseService.submitExpense(employee, new BigDecimal(amount), currency, category,
+                null, date, null, null);
+    }
+    
+    private void saveRate(LocalDate date, String usdToEur) {
+        currencyRateRepository.save(new CurrencyRate(null, date, "USD", "EUR", new BigDecimal(usdToEur), null));
+    }
+    
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "Expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,224 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.dto.common.CursorPage;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseResponse;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseSummaryResponse;
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.ApprovalStep;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.entity.CompanyApprovalRule;
+import com.teaminfinity.expensemanagement.entity.Expense;
+import com.teaminfinity.expensemanagement.enums.ApprovalRuleType;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.repository.ApprovalStepRepository;
+import com.teaminfinity.expensemanagement.repository.CompanyApprovalRuleRepository;
+import com.teaminfinity.expensemanagement.support.SqlStatementCounter;
+import com.teaminfinity.expensemanagement.support.TestFixtures;
+import com.teaminfinity.expensemanagement.util.PageCursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for ExpenseService against the H2 test database.
+ */
+@SpringBootTest
+@Transactional
+class ExpenseServiceTest {
+    
+    @Autowired
+    private ExpenseService expenseService;
+    
+    @Autowired
+    private TestFixtures fixtures;
+    
+    @Autowired
+    private CompanyApprovalRuleRepository approvalRuleRepository;
+    
+    @Autowired
+    private ApprovalStepRepository approvalStepRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private AppUser employee;
+    
+    @BeforeEach
+    void setUp() {
+        Company company = fixtures.createCompany("Batch Corp", true);
+        
+        AppUser manager = fixtures.createUser("manager@batch.com", Role.MANAGER, company);
+        AppUser finance = fixtures.createUser("finance@batch.com", Role.ADMIN, company);
+        AppUser director = fixtures.createUser("director@batch.com", Role.ADMIN, company);
+        employee = fixtures.createUser("employee@batch.com", Role.EMPLOYEE, company, manager);
+        
+        createRule(company, finance, 1);
+        createRule(company, director, 2);
+        
+        entityManager.flush();
+    }
+    
+    @Test
+    void testSubmitExpense_BatchesApprovalStepInserts() {
+        // Warm up so the pooled sequences have an allocated block
+        submit();
+        entityManager.flush();
+        
+        SqlStatementCounter.reset();
+        Expense expense = submit();
+        entityManager.flush();
+        
+        // Rules are served from the compiled cache: 1 expense insert + 1 batched insert for all 3 steps
+        // + 1 in-place update of the (already created) spend rollup bucket
+        List<String> statements = SqlStatementCounter.statements();
+        assertEquals(3, statements.size(), () -> "Unexpected statements: " + statements);
+        
+        List<ApprovalStep> steps = approvalStepRepository.findByExpenseIdOrderBySequenceAsc(expense.getId());
+        assertEquals(3, steps.size());
+        assertEquals(List.of(1, 2, 3), steps.stream().map(ApprovalStep::getSequence).toList());
+    }
+    
+    @Test
+    void testSubmitExpense_RuleChangeEvictsCompiledRules() {
+        submit();
+        
+        CompanyApprovalRule rule = approvalRuleRepository
+                .findByCompanyIdAndActiveOrderBySequenceAsc(employee.getCompany().getId(), true).get(1);
+        rule.setActive(false);
+        entityManager.flush();
+        
+        Expense expense = submit();
+        entityManager.flush();
+        
+        // Manager + the remaining specific approver
+        assertEquals(2, approvalStepRepository.findByExpenseIdOrderBySequenceAsc(expense.getId()).size());
+    }
+    
+    @Test
+    void testListExpenses_ProjectsPageInOneStatement() {
+        for (int i = 0; i < 10; i++) {
+            submit();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        SqlStatementCounter.reset();
+        CursorPage<ExpenseResponse> mine = expenseService.getUserExpenses(employee.getId(), PageCursor.FIRST_PAGE, 5);
+        CursorPage<ExpenseResponse> pending = expenseService.getPendingExpensesByCompany(
+                employee.getCompany().getId(), PageCursor.FIRST_PAGE, 20);
+        
+        // One statement per page, no lazy loads of the submitter per row
+        List<String> statements = SqlStatementCounter.statements();
+        assertEquals(2, statements.size(), () -> "Unexpected statements: " + statements);
+        assertEquals(5, mine.getItems().size());
+        assertNotNull(mine.getNextCursor());
+        assertEquals(10, pending.getItems().size());
+        assertNull(pending.getNextCursor());
+        assertEquals("employee@batch.com", mine.getItems().get(0).getUserFullName());
+        assertEquals("PENDING", mine.getItems().get(0).getStatus());
+    }
+    
+    @Test
+    void testListExpenses_WalksPagesAcrossCreatedAtTies() {
+        List<Long> older = new ArrayList<>();
+        List<Long> newer = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            (i < 3 ? older : newer).add(submit().getId());
+        }
+        entityManager.flush();
+        
+        // Two groups of identical timestamps, so ties straddle every page boundary
+        setCreatedAt(older, LocalDateTime.of(2024, 3, 15, 9, 0));
+        setCreatedAt(newer, LocalDateTime.of(2024, 3, 15, 10, 0));
+        entityManager.clear();
+        
+        List<Long> expected = new ArrayList<>(newer);
+        expected.sort(Comparator.reverseOrder());
+        older.stream().sorted(Comparator.reverseOrder()).forEach(expected::add);
+        
+        List<List<Long>> mine = walk(cursor -> expenseService.getUserExpenses(employee.getId(), cursor, 3));
+        assertEquals(List.of(3, 3, 1), mine.stream().map(List::size).toList());
+        assertEquals(expected, mine.stream().flatMap(List::stream).toList());
+        
+        List<List<Long>> pending = walk(cursor -> expenseService.getPendingExpensesByCompany(
+                employee.getCompany().getId(), cursor, 2));
+        assertEquals(4, pending.size());
+        assertEquals(expected, pending.stream().flatMap(List::stream).toList());
+    }
+    
+    @Test
+    void testGetUserExpenseSummary_AggregatesInOneStatement() {
+        submit();
+        submit();
+        Expense approved = submit();
+        expenseService.submitExpense(employee, new BigDecimal("30.50"), "USD", "Meals",
+                "Lunch", LocalDate.now(), null, null);
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE expenses SET status = 'APPROVED' WHERE id = :id")
+                .setParameter("id", approved.getId())
+                .executeUpdate();
+        entityManager.clear();
+        
+        SqlStatementCounter.reset();
+        ExpenseSummaryResponse summary = expenseService.getUserExpenseSummary(employee.getId());
+        
+        List<String> statements = SqlStatementCounter.statements();
+        assertEquals(1, statements.size(), () -> "Unexpected statements: " + statements);
+        assertEquals(4, summary.getExpenseCount());
+        assertEquals(Map.of("APPROVED", 1L, "PENDING", 3L), summary.getCountsByStatus());
+        assertEquals(0, new BigDecimal("120.00").compareTo(summary.getAmountsByStatus().get("APPROVED")));
+        assertEquals(0, new BigDecimal("270.50").compareTo(summary.getAmountsByStatus().get("PENDING")));
+        assertEquals(0, new BigDecimal("360.00").compareTo(summary.getAmountsByCategory().get("Travel")));
+        assertEquals(0, new BigDecimal("30.50").compareTo(summary.getAmountsByCategory().get("Meals")));
+    }
+    
+    /**
+     * Follow next cursors from the first page to the last, returning the ids of each page.
+     */
+    private static List<List<Long>> walk(Function<PageCursor, CursorPage<ExpenseResponse>> fetch) {
+        List<List<Long>> pages = new ArrayList<>();
+        PageCursor cursor = PageCursor.FIRST_PAGE;
+        while (cursor != null) {
+            CursorPage<ExpenseResponse> page = fetch.apply(cursor);
+            pages.add(page.getItems().stream().map(ExpenseResponse::getId).toList());
+            cursor = page.getNextCursor() != null ? PageCursor.decode(page.getNextCursor()) : null;
+        }
+        return pages;
+    }
+    
+    private void setCreatedAt(List<Long> expenseIds, LocalDateTime createdAt) {
+        entityManager.createNativeQuery("UPDATE expenses SET created_at = :createdAt WHERE id IN (:ids)")
+                .setParameter("createdAt", createdAt)
+                .setParameter("ids", expenseIds)
+                .executeUpdate();
+    }
+    
+    private Expense submit() {
+        return expenseService.submitExpense(employee, new BigDecimal("120.00"), "USD", "Travel",
+                "Taxi", LocalDate.now(), null, null);
+    }
+    
+    private void createRule(Company company, AppUser approver, int sequence) {
+        CompanyApprovalRule rule = new CompanyApprovalRule();
+        rule.setCompany(company);
+        rule.setRuleType(ApprovalRuleType.SPECIFIC_APPROVER);
+        rule.setSpecificApprover(approver);
+        rule.setSequence(sequence);
+        rule.setActive(true);
+        approvalRuleRepository.save(rule);
+    }
+}
@@ -0,0 +1,104 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.enums.OcrJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for OcrJobService: one job in flight, a queue of one, and a recognizer the test can hold.
+ */
+class OcrJobServiceTest {
+    
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Set<Thread> recognizerThreads = ConcurrentHashMap.newKeySet();
+    private OcrJobService ocrJobService;
+    
+    @BeforeEach
+    void setUp() {
+        OcrService blockingOcrService = new OcrService() {
+            @Override
+            public OcrResult parseReceipt(byte[] receiptImage) {
+                recognizerThreads.add(Thread.currentThread());
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.parseReceipt(receiptImage);
+            }
+        };
+        
+        ocrJobService = new OcrJobService(blockingOcrService);
+        ReflectionTestUtils.setField(ocrJobService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(ocrJobService, "workerCount", 1);
+        ReflectionTestUtils.setField(ocrJobService, "maxInFlight", 1);
+        ReflectionTestUtils.setField(ocrJobService, "resultTtl", Duration.ofMinutes(10));
+        ocrJobService.start();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        ocrJobService.stop();
+    }
+    
+    @Test
+    void testSubmit_RejectsWhenQueueIsFullAndCompletesQueuedJobs() throws Exception {
+        OcrJobService.OcrJob running = ocrJobService.submit(1L, upload()).orElseThrow();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(OcrJobStatus.RUNNING, running.getStatus());
+        
+        OcrJobService.OcrJob queued = ocrJobService.submit(1L, upload()).orElseThrow();
+        Path rejectedUpload = upload();
+        assertTrue(ocrJobService.submit(1L, rejectedUpload).isEmpty());
+        assertFalse(Files.exists(rejectedUpload));
+        assertEquals(1, ocrJobService.getStats().queueDepth());
+        
+        release.countDown();
+        queued.getCompletion().get(5, TimeUnit.SECONDS);
+        
+        assertEquals(OcrJobStatus.SUCCEEDED, running.getStatus());
+        assertEquals(OcrJobStatus.SUCCEEDED, queued.getStatus());
+        assertNotNull(queued.getResult().getAmount());
+        
+        OcrJobService.JobStats stats = ocrJobService.getStats();
+        assertEquals(2, stats.submitted());
+        assertEquals(1, stats.rejected());
+        assertEquals(2, stats.succeeded());
+        assertEquals(0, stats.queueDepth());
+        
+        // Uploads are read on virtual threads; recognition runs on the platform pool
+        assertFalse(recognizerThreads.isEmpty());
+        assertTrue(recognizerThreads.stream().noneMatch(Thread::isVirtual));
+    }
+    
+    @Test
+    void testGetJob_OnlyVisibleToOwner() throws Exception {
+        Path image = upload();
+        OcrJobService.OcrJob job = ocrJobService.submit(1L, image).orElseThrow();
+        release.countDown();
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+        
+        assertTrue(ocrJobService.getJob(job.getId(), 1L).isPresent());
+        assertTrue(ocrJobService.getJob(job.getId(), 2L).isEmpty());
+        assertFalse(Files.exists(image));
+    }
+    
+    private static Path upload() throws Exception {
+        return Files.createTempFile("ocr-test-", ".upload");
+    }
+}
@@ -0,0 +1,51 @@
+package com.teaminfinity.expensemanagement.service;
+
+import com.teaminfinity.expensemanagement.repository.ReceiptRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ReceiptStorageService outside a test transaction, as the controller calls it.
+ */
+@SpringBootTest
+class ReceiptStorageServiceTest {
+    
+    @Autowired
+    private ReceiptStorageService receiptStorageService;
+    
+    @Autowired
+    private ReceiptRepository receiptRepository;
+    
+    @Test
+    void testStore_StreamsUploadWithoutTransaction() throws IOException {
+        byte[] bytes = ("receipt streamed outside a transaction " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        boolean[] transactionWhileReading = {false};
+        InputStream upload = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                transactionWhileReading[0] |= TransactionSynchronizationManager.isActualTransactionActive();
+                return super.read(buffer, offset, length);
+            }
+        };
+        
+        ReceiptStorageService.StoredReceipt stored = receiptStorageService.store(upload, "image/png");
+        try {
+            assertFalse(transactionWhileReading[0]);
+            assertEquals(bytes.length, stored.sizeBytes());
+            assertTrue(receiptStorageService.exists(stored.hash()));
+        } finally {
+            receiptRepository.deleteById(stored.hash());
+            Files.deleteIfExists(receiptStorageService.locate(stored.hash()).orElseThrow());
+        }
+    }
+}
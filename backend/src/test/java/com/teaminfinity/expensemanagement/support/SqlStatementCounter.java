@@ -0,0 +1,63 @@
+package com.teaminfinity.expensemanagement.support;
+
+import com.teaminfinity.expensemanagement.config.SqlStatementConfig;
+import com.teaminfinity.expensemanagement.util.SqlStatementRecorder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Test helper over {@link SqlStatementRecorder}: records every SQL statement prepared
+ * by the current thread since the last reset, so tests can assert how many
+ * round-trips an operation costs. A JDBC batch is prepared once, so it counts as a
+ * single statement.
+ * 
+ * For MockMvc tests, {@link #statements(int)} pins the statements of the whole
+ * request instead (per-request accounting is enabled for the test profile).
+ */
+public final class SqlStatementCounter {
+    
+    private static final ThreadLocal<SqlStatementRecorder.Recording> RECORDING = new ThreadLocal<>();
+    
+    private SqlStatementCounter() {
+    }
+    
+    public static void reset() {
+        SqlStatementRecorder.Recording previous = RECORDING.get();
+        if (previous != null) {
+            previous.close();
+        }
+        RECORDING.set(SqlStatementRecorder.start());
+    }
+    
+    /**
+     * Statements recorded since the last reset, excluding pooled sequence calls
+     * (which happen once per allocation block, not once per row).
+     */
+    public static List<String> statements() {
+        SqlStatementRecorder.Recording recording = RECORDING.get();
+        return recording != null ? recording.statements() : List.of();
+    }
+    
+    public static int count() {
+        return statements().size();
+    }
+    
+    /**
+     * Expect a request to have run exactly this many SQL statements (authentication
+     * included). The failure message lists the statements.
+     */
+    public static ResultMatcher statements(int expected) {
+        return result -> {
+            Object recording = result.getRequest().getAttribute(SqlStatementConfig.RECORDING_ATTRIBUTE);
+            assertNotNull(recording, "Request was not recorded; is sql.statements.per-request.enabled set?");
+            List<String> statements = ((SqlStatementRecorder.Recording) recording).statements();
+            assertEquals(expected, statements.size(), () -> "SQL statements of "
+                    + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI() + ":\n"
+                    + String.join("\n", statements));
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.teaminfinity.expensemanagement.support;
+
+import com.teaminfinity.expensemanagement.entity.AppUser;
+import com.teaminfinity.expensemanagement.entity.Company;
+import com.teaminfinity.expensemanagement.enums.Role;
+import com.teaminfinity.expensemanagement.repository.CompanyRepository;
+import com.teaminfinity.expensemanagement.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saves the companies and users that integration tests build their scenarios on.
+ * Picked up by component scanning, so any @SpringBootTest can autowire it.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestFixtures {
+    
+    private final CompanyRepository companyRepository;
+    private final UserRepository userRepository;
+    
+    /**
+     * A US company with USD as its default currency.
+     */
+    public Company createCompany(String name, boolean managerApprover) {
+        Company company = new Company();
+        company.setName(name);
+        company.setCountry("United States");
+        company.setDefaultCurrency("USD");
+        company.setIsManagerApprover(managerApprover);
+        return companyRepository.save(company);
+    }
+    
+    /**
+     * A user without a manager, with the email as full name and password "password".
+     */
+    public AppUser createUser(String email, Role role, Company company) {
+        return createUser(email, role, company, null);
+    }
+    
+    /**
+     * A user with the email as full name and password "password".
+     */
+    public AppUser createUser(String email, Role role, Company company, AppUser manager) {
+        AppUser user = new AppUser();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setFullName(email);
+        user.setRole(role);
+        user.setCompany(company);
+        user.setManager(manager);
+        return userRepository.save(user);
+    }
+}
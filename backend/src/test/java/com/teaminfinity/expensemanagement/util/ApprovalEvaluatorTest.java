@@ -190,4 +190,47 @@ class ApprovalEvaluatorTest {
         assertEquals(1, approvers.size());
         assertEquals(admin.getId(), approvers.get(0).getId());
     }
+    
+    @Test
+    void testDetermineApproverIds_CompiledRulesMatchEntityEvaluation() {
+        List<CompanyApprovalRule> rules = new ArrayList<>();
+        
+        CompanyApprovalRule percentage = new CompanyApprovalRule();
+        percentage.setRuleType(ApprovalRuleType.PERCENTAGE);
+        percentage.setThresholdAmount(new BigDecimal("1000.00"));
+        percentage.setThresholdPercentage(new BigDecimal("20.00")); // 200
+        percentage.setSpecificApprover(admin);
+        percentage.setSequence(1);
+        rules.add(percentage);
+        
+        CompanyApprovalRule hybrid = new CompanyApprovalRule();
+        hybrid.setRuleType(ApprovalRuleType.HYBRID);
+        hybrid.setThresholdAmount(new BigDecimal("500.00"));
+        hybrid.setSpecificApprover(manager);
+        hybrid.setSequence(2);
+        rules.add(hybrid);
+        
+        CompiledRuleSet ruleSet = approvalEvaluator.compile(testCompany.getId(), rules, true);
+        
+        for (String amount : new String[]{"100.00", "200.00", "250.00", "500.00", "1000.00"}) {
+            testExpense.setAmount(new BigDecimal(amount));
+            List<Long> expected = approvalEvaluator.determineApprovers(testExpense, rules, manager, true)
+                    .stream().map(AppUser::getId).toList();
+            
+            assertEquals(expected, approvalEvaluator.determineApproverIds(ruleSet, testExpense.getAmount(), manager.getId()),
+                    "Mismatch for amount " + amount);
+        }
+    }
+    
+    @Test
+    void testCompile_SkipsRulesWithoutApprover() {
+        CompanyApprovalRule rule = new CompanyApprovalRule();
+        rule.setRuleType(ApprovalRuleType.SPECIFIC_APPROVER);
+        rule.setSequence(1);
+        
+        CompiledRuleSet ruleSet = approvalEvaluator.compile(testCompany.getId(), List.of(rule), false);
+        
+        assertEquals(0, ruleSet.size());
+        assertTrue(approvalEvaluator.determineApproverIds(ruleSet, new BigDecimal("50.00"), null).isEmpty());
+    }
 }
@@ -0,0 +1,129 @@
+package com.teaminfinity.expensemanagement.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teaminfinity.expensemanagement.dto.expense.ExpenseImportRow;
+import com.teaminfinity.expensemanagement.enums.ExpenseStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ExpenseImportReader (CSV and NDJSON row parsing).
+ */
+class ExpenseImportReaderTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    
+    @Test
+    void testCsv_ParsesHeaderAliasesAndQuotedFields() throws IOException {
+        ExpenseImportReader reader = csv("""
+                User_Email,amount,currency,category,description,expense_date,status,ignored
+                a@corp.com,12.50,USD,Travel,"Taxi, airport ""late"" run",2024-03-15,approved,x
+                
+                b@corp.com,99,EUR,Meals,,2024-03-16,,
+                """);
+        
+        ExpenseImportRow first = reader.next();
+        assertEquals("a@corp.com", first.getUserEmail());
+        assertEquals(new BigDecimal("12.50"), first.getAmount());
+        assertEquals("Taxi, airport \"late\" run", first.getDescription());
+        assertEquals(LocalDate.of(2024, 3, 15), first.getExpenseDate());
+        assertEquals(ExpenseStatus.APPROVED, first.getStatus());
+        assertEquals(2, reader.getRowLine());
+        
+        // Blank lines are skipped; empty fields stay null
+        ExpenseImportRow second = reader.next();
+        assertEquals("b@corp.com", second.getUserEmail());
+        assertNull(second.getDescription());
+        assertNull(second.getStatus());
+        assertEquals(4, reader.getRowLine());
+        
+        assertNull(reader.next());
+    }
+    
+    @Test
+    void testCsv_ReportsLineWhereMultiLineRowStarts() throws IOException {
+        ExpenseImportReader reader = csv("""
+                user_email,amount,description
+                a@corp.com,1,"first line
+                second line"
+                b@corp.com,2,single
+                """);
+        
+        assertEquals("first line\nsecond line", reader.next().getDescription());
+        assertEquals(2, reader.getRowLine());
+        assertEquals("single", reader.next().getDescription());
+        assertEquals(4, reader.getRowLine());
+    }
+    
+    @Test
+    void testCsv_MalformedRowsFailButReadingContinues() throws IOException {
+        ExpenseImportReader reader = csv("""
+                user_email,amount,expense_date
+                a@corp.com,not-a-number,2024-03-15
+                b@corp.com,5,2024-03-15,extra
+                c@corp.com,5,2024-02-30
+                d@corp.com,5,2024-03-15
+                e@corp.com,5,"unterminated
+                """);
+        
+        IllegalArgumentException badAmount = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(badAmount.getMessage().contains("amount"), badAmount.getMessage());
+        assertEquals(2, reader.getRowLine());
+        IllegalArgumentException tooManyColumns = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(tooManyColumns.getMessage().contains("Expected 3 columns"), tooManyColumns.getMessage());
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals(4, reader.getRowLine());
+        
+        assertEquals("d@corp.com", reader.next().getUserEmail());
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals(6, reader.getRowLine());
+        assertNull(reader.next());
+    }
+    
+    @Test
+    void testNdjson_ParsesObjectsAndSkipsMalformedLines() throws IOException {
+        ExpenseImportReader reader = ExpenseImportReader.ndjson(stream("""
+                {"userEmail":"a@corp.com","amount":12.50,"currency":"USD","category":"Travel","expenseDate":"2024-03-15"}
+                
+                {"userEmail":"b@corp.com","amount":
+                {"userEmail":"c@corp.com","amount":3,"status":"REJECTED"}
+                """), objectMapper);
+        
+        ExpenseImportRow first = reader.next();
+        assertEquals("a@corp.com", first.getUserEmail());
+        assertEquals(new BigDecimal("12.50"), first.getAmount());
+        assertEquals(LocalDate.of(2024, 3, 15), first.getExpenseDate());
+        assertEquals(1, reader.getRowLine());
+        
+        IllegalArgumentException malformed = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(malformed.getMessage().startsWith("Malformed JSON"), malformed.getMessage());
+        assertEquals(3, reader.getRowLine());
+        
+        ExpenseImportRow last = reader.next();
+        assertEquals(ExpenseStatus.REJECTED, last.getStatus());
+        assertEquals(4, reader.getRowLine());
+        assertNull(reader.next());
+    }
+    
+    @Test
+    void testEmptyInput_HasNoRows() throws IOException {
+        assertNull(csv("").next());
+        assertNull(ExpenseImportReader.ndjson(stream(""), objectMapper).next());
+    }
+    
+    private static ExpenseImportReader csv(String content) {
+        return ExpenseImportReader.csv(stream(content));
+    }
+    
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
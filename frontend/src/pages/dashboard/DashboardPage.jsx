@@ -9,24 +9,26 @@ import { useInterval } from '../../hooks/useInterval.js';
 export default function DashboardPage(){
   const { user } = useAuth();
   const [loading,setLoading]=useState(true);
-  const [stats,setStats]=useState({ myRecent:[], pendingApprovals:[], pendingCompany:0, totals:{ submitted:0, approvedAmount:0, drafts:0, categories:{} } });
+  const [stats,setStats]=useState({ myRecent:[], pendingApprovals:[], pendingApprovalCount:'0', pendingCompany:0, totals:{ submitted:0, approvedAmount:0, drafts:0, categories:{} } });
 
+  // Totals come from server-side aggregates; lists only need their first page
   const load = useCallback(async ()=> {
     try {
-      const my = await api.myExpenses();
-      const submitted = my.length;
-      const approved = my.filter(e=> e.status==='APPROVED');
-      const drafts = my.filter(e=> e.status==='PENDING').length;
-      const approvedAmount = approved.reduce((s,e)=> s + Number(e.amount),0);
-      const categories = my.reduce((m,e)=> { m[e.category]=(m[e.category]||0)+Number(e.amount); return m; },{});
+      const [summary, recent] = await Promise.all([api.myExpenseSummary(), api.myExpenses()]);
+      const submitted = summary.expenseCount;
+      const drafts = summary.countsByStatus.PENDING || 0;
+      const approvedAmount = Number(summary.amountsByStatus.APPROVED || 0);
+      const categories = Object.fromEntries(Object.entries(summary.amountsByCategory).map(([c,a])=> [c, Number(a)]));
       let pendingApprovals = [];
+      let pendingApprovalCount = '0';
       let pendingCompany = 0;
       if (user.role==='MANAGER' || user.role==='ADMIN') {
-        pendingApprovals = await api.pendingApprovals().catch(()=>[]);
-        const pendExp = await api.pendingCompanyExpenses().catch(()=>[]);
-        pendingCompany = pendExp.length;
+        const page = await api.pendingApprovals().catch(()=> ({ items:[], nextCursor:null }));
+        pendingApprovals = page.items;
+        pendingApprovalCount = page.nextCursor ? `${page.items.length}+` : String(page.items.length);
+        pendingCompany = await api.spendSummary('PENDING').then(s=> s.expenseCount).catch(()=>0);
       }
-      setStats({ myRecent: my.slice(0,5), pendingApprovals: pendingApprovals.slice(0,5), pendingCompany, totals:{ submitted, approvedAmount, drafts, categories } });
+      setStats({ myRecent: recent.items.slice(0,5), pendingApprovals: pendingApprovals.slice(0,5), pendingApprovalCount, pendingCompany, totals:{ submitted, approvedAmount, drafts, categories } });
     } finally { setLoading(false); }
   },[user.role]);
 
@@ -43,7 +45,7 @@ export default function DashboardPage(){
         <div className="card"><div className="text-xs uppercase text-gray-500">Approved Amount</div><div className="mt-2 text-2xl font-semibold">{stats.totals.approvedAmount.toFixed(2)}</div></div>
         <div className="card"><div className="text-xs uppercase text-gray-500">Draft / Pending</div><div className="mt-2 text-2xl font-semibold">{stats.totals.drafts}</div></div>
         {(user.role==='MANAGER'||user.role==='ADMIN') && (
-          <div className="card"><div className="text-xs uppercase text-gray-500">My Pending Approvals</div><div className="mt-2 text-2xl font-semibold">{stats.pendingApprovals.length}</div></div>
+          <div className="card"><div className="text-xs uppercase text-gray-500">My Pending Approvals</div><div className="mt-2 text-2xl font-semibold">{stats.pendingApprovalCount}</div></div>
         )}
         {(user.role==='MANAGER'||user.role==='ADMIN') && (
           <div className="card"><div className="text-xs uppercase text-gray-500">Company Pending Expenses</div><div className="mt-2 text-2xl font-semibold">{stats.pendingCompany}</div></div>
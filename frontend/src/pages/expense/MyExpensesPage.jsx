@@ -7,8 +7,10 @@ const statusColor = s => ({ DRAFT:'badge-warning', PENDING:'badge-warning', APPR
 
 export default function MyExpensesPage(){
   const [rows,setRows]=useState([]);
+  const [next,setNext]=useState(null);
   const [loading,setLoading]=useState(true);
-  useEffect(()=> { api.myExpenses().then(r=> setRows(r)).finally(()=>setLoading(false)); },[]);
+  const fetchPage=(cursor)=> { setLoading(true); return api.myExpenses(cursor).then(p=> { setRows(r=> cursor ? [...r, ...p.items] : p.items); setNext(p.nextCursor); }).finally(()=>setLoading(false)); };
+  useEffect(()=> { fetchPage(null); },[]);
   return (
     <div className="card">
       <h3 className="font-medium mb-4">My Expenses</h3>
@@ -42,6 +44,7 @@ export default function MyExpensesPage(){
           </tbody>
         </table>
       </div>
+      {next && <div className="mt-4 text-center"><button onClick={()=>fetchPage(next)} disabled={loading} className="btn-secondary">Load more</button></div>}
     </div>
   );
 }
@@ -6,10 +6,13 @@ import { useInterval } from '../../hooks/useInterval.js';
 export default function ApprovalsPage(){
   const { push } = useToast();
   const [rows,setRows]=useState([]);
+  const [next,setNext]=useState(null);
+  const [more,setMore]=useState(false);
   const [loading,setLoading]=useState(true);
-  const load = useCallback(()=> api.pendingApprovals().then(r=> setRows(r)).finally(()=> setLoading(false)),[]);
+  const load = useCallback(()=> api.pendingApprovals().then(p=> { setRows(p.items); setNext(p.nextCursor); setMore(false); }).finally(()=> setLoading(false)),[]);
+  const loadMore = ()=> api.pendingApprovals(next).then(p=> { setRows(r=> [...r, ...p.items]); setNext(p.nextCursor); setMore(true); });
   useEffect(()=> { load(); },[load]);
-  useInterval(()=> { load(); }, 10000); // refresh every 10s
+  useInterval(()=> { load(); }, more ? null : 10000); // refresh every 10s, unless older pages are loaded
 
   const act=async (id,decision)=>{
     try { await api.decide(id, decision, ''); push('Updated','success'); load(); } catch { push('Failed','error'); }
@@ -49,6 +52,7 @@ export default function ApprovalsPage(){
           </tbody>
         </table>
       </div>
+      {next && <div className="mt-4 text-center"><button onClick={loadMore} className="btn-secondary">Load more</button></div>}
     </div>
   );
 }
@@ -17,6 +17,8 @@ async function request(path, { method='GET', body, headers } = {}) {
   return res.json();
 }
 
+function withCursor(path, cursor){ return cursor ? `${path}?cursor=${encodeURIComponent(cursor)}` : path; }
+
 export const api = {
   get: (p)=>request(p),
   post: (p,b)=>request(p,{method:'POST',body:b}),
@@ -30,13 +32,16 @@ export const api = {
   listUsers:(companyId)=> api.get(companyId? `/users?companyId=${companyId}`: '/users'),
   listManagers:(companyId)=> api.get(companyId? `/users/role/MANAGER?companyId=${companyId}`:'/users/role/MANAGER'),
   submitExpense:(payload)=>api.post('/expenses',payload),
-  myExpenses:()=>api.get('/expenses/my'),
-  myExpensesByStatus:(s)=>api.get(`/expenses/my/status/${s}`),
+  // list helpers return one page: { items, nextCursor }; pass nextCursor back for the next page
+  myExpenses:(cursor)=>api.get(withCursor('/expenses/my',cursor)),
+  myExpenseSummary:()=>api.get('/expenses/my/summary'),
+  myExpensesByStatus:(s,cursor)=>api.get(withCursor(`/expenses/my/status/${s}`,cursor)),
   expense:(id)=>api.get(`/expenses/${id}`),
-  pendingApprovals:()=>api.get('/approvals/pending'),
+  pendingApprovals:(cursor)=>api.get(withCursor('/approvals/pending',cursor)),
   approvalSteps:(expenseId)=>api.get(`/approvals/expense/${expenseId}`),
   decide:(stepId,decision,comments)=>api.put(`/approvals/${stepId}`,{decision,comments}),
-  pendingCompanyExpenses:()=>api.get('/expenses/pending'),
+  pendingCompanyExpenses:(cursor)=>api.get(withCursor('/expenses/pending',cursor)),
+  spendSummary:(status)=>api.get(status ? `/reports/summary?status=${status}` : '/reports/summary'),
   countries:()=>api.get('/integration/countries'),
   rates:(base)=>api.get(`/integration/currency-rates/${base}`)
 };